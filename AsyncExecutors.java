@@ -0,0 +1,98 @@
+package com.handler.datasources;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * 异步查询使用的默认线程池
+ * 运行在支持虚拟线程的JDK(21+)上时每个任务使用一个虚拟线程，否则使用有界线程池
+ */
+final class AsyncExecutors {
+
+    /**
+     * 有界线程池的线程数
+     */
+    private static final int POOL_SIZE = Math.max(8, Runtime.getRuntime().availableProcessors() * 4);
+
+    /**
+     * 有界线程池的队列长度(队列满时由调用线程执行，避免无限堆积)
+     */
+    private static final int QUEUE_SIZE = 1000;
+
+    private static volatile Executor defaultExecutor;
+
+    /**
+     * 当前线程是否正在执行本工具类提交的异步任务
+     */
+    private static final ThreadLocal<Boolean> IN_TASK = new ThreadLocal<>();
+
+    private AsyncExecutors() {
+    }
+
+    /**
+     * @return 默认线程池(第一次调用时创建)
+     */
+    static Executor defaultExecutor() {
+        Executor executor = defaultExecutor;
+        if (null == executor) {
+            synchronized (AsyncExecutors.class) {
+                executor = defaultExecutor;
+                if (null == executor) {
+                    executor = createExecutor();
+                    defaultExecutor = executor;
+                }
+            }
+        }
+        return executor;
+    }
+
+    /**
+     * 包装提交到线程池的任务，执行期间标记当前线程正在执行异步任务
+     *
+     * @param supplier 任务
+     * @return 包装后的任务
+     */
+    static <R> Supplier<R> task(Supplier<R> supplier) {
+        return () -> {
+            if (inTask()) {
+                return supplier.get();
+            }
+            IN_TASK.set(Boolean.TRUE);
+            try {
+                return supplier.get();
+            } finally {
+                IN_TASK.remove();
+            }
+        };
+    }
+
+    /**
+     * 当前线程是否正在执行异步任务
+     * 异步任务中再把子任务提交到同一个有界线程池并等待时，所有线程都可能在等待排队中的子任务而死锁，此时子任务应在当前线程中执行
+     *
+     * @return 是否正在执行异步任务
+     */
+    static boolean inTask() {
+        return Boolean.TRUE.equals(IN_TASK.get());
+    }
+
+    private static Executor createExecutor() {
+        try {
+            Method method = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (Executor) method.invoke(null);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            // JDK不支持虚拟线程
+        }
+        AtomicInteger threadNumber = new AtomicInteger();
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(POOL_SIZE, POOL_SIZE, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(QUEUE_SIZE), runnable -> {
+            Thread thread = new Thread(runnable, "datasources-async-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }, new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+}
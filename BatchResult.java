@@ -0,0 +1,44 @@
+package com.handler.datasources;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 批量执行结果
+ */
+public class BatchResult {
+
+    private final List<Integer> chunkCounts = new ArrayList<>();
+
+    private int totalCount;
+
+    void addChunk(int[] counts) {
+        int chunkCount = 0;
+        for (int count : counts) {
+            // 部分驱动批量执行成功时只返回SUCCESS_NO_INFO(-2)，按1行计
+            chunkCount += count >= 0 ? count : 1;
+        }
+        chunkCounts.add(chunkCount);
+        totalCount += chunkCount;
+    }
+
+    /**
+     * @return 每一批影响的行数
+     */
+    public List<Integer> getChunkCounts() {
+        return Collections.unmodifiableList(chunkCounts);
+    }
+
+    /**
+     * @return 影响的总行数
+     */
+    public int getTotalCount() {
+        return totalCount;
+    }
+
+    @Override
+    public String toString() {
+        return "BatchResult{totalCount=" + totalCount + ", chunkCounts=" + chunkCounts + "}";
+    }
+}
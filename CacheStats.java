@@ -0,0 +1,74 @@
+package com.handler.datasources;
+
+/**
+ * 缓存统计
+ */
+public class CacheStats {
+
+    private final long hitCount;
+
+    private final long missCount;
+
+    private final long evictionCount;
+
+    private final int size;
+
+    private final long weight;
+
+    CacheStats(long hitCount, long missCount, long evictionCount, int size, long weight) {
+        this.hitCount = hitCount;
+        this.missCount = missCount;
+        this.evictionCount = evictionCount;
+        this.size = size;
+        this.weight = weight;
+    }
+
+    /**
+     * @return 命中次数
+     */
+    public long getHitCount() {
+        return hitCount;
+    }
+
+    /**
+     * @return 未命中次数
+     */
+    public long getMissCount() {
+        return missCount;
+    }
+
+    /**
+     * @return 淘汰(超出条数或过期)次数
+     */
+    public long getEvictionCount() {
+        return evictionCount;
+    }
+
+    /**
+     * @return 当前缓存条数
+     */
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * @return 估算占用的内存(字节，只有查询结果缓存统计，其它缓存为0)
+     */
+    public long getWeight() {
+        return weight;
+    }
+
+    /**
+     * @return 命中率(没有访问时为0)
+     */
+    public double getHitRate() {
+        long total = hitCount + missCount;
+        return total == 0 ? 0 : (double) hitCount / total;
+    }
+
+    @Override
+    public String toString() {
+        return "CacheStats{hitCount=" + hitCount + ", missCount=" + missCount + ", evictionCount=" + evictionCount
+                + ", size=" + size + ", weight=" + weight + "}";
+    }
+}
@@ -0,0 +1,44 @@
+package com.handler.datasources;
+
+import java.util.List;
+
+/**
+ * 增量拉取结果
+ *
+ * @param <T> 数据类型
+ */
+public class ChangeBatch<T> {
+
+    private final List<T> records;
+
+    private final String watermark;
+
+    private final boolean hasMore;
+
+    ChangeBatch(List<T> records, String watermark, boolean hasMore) {
+        this.records = records;
+        this.watermark = watermark;
+        this.hasMore = hasMore;
+    }
+
+    /**
+     * @return 本批变更的数据(按修改时间、id排序)
+     */
+    public List<T> getRecords() {
+        return records;
+    }
+
+    /**
+     * @return 下一次拉取使用的水位(本批没有数据时与传入的水位相同，同步成功后保存)
+     */
+    public String getWatermark() {
+        return watermark;
+    }
+
+    /**
+     * @return 是否还有未拉取的变更(为true时可以用新的水位立即继续拉取)
+     */
+    public boolean hasMore() {
+        return hasMore;
+    }
+}
@@ -0,0 +1,53 @@
+package com.handler.datasources;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * 列值与字段类型之间的转换器
+ * 在实体元数据构建时按字段类型选定(见ColumnConverters)，之后每次读写直接使用
+ *
+ * @param <T> 字段类型
+ */
+public interface ColumnConverter<T> {
+
+    /**
+     * 从字符串解析(RecordSet只能按字符串读取)
+     *
+     * @param value 列值
+     * @return 字段值(空值时为null)
+     */
+    T fromString(String value);
+
+    /**
+     * 从JDBC结果集读取，默认按字符串读取后解析
+     *
+     * @param resultSet   结果集
+     * @param columnIndex 列序号(从1开始)
+     * @return 字段值(空值时为null)
+     * @throws SQLException 读取失败
+     */
+    default T read(ResultSet resultSet, int columnIndex) throws SQLException {
+        return fromString(resultSet.getString(columnIndex));
+    }
+
+    /**
+     * 转换为sql参数，默认直接使用字段值
+     *
+     * @param value 字段值(不为null)
+     * @return sql参数
+     */
+    default Object toParameter(T value) {
+        return value;
+    }
+
+    /**
+     * 转换为字符串(用于建模保存接口等只接受字符串的场景)，默认为toString()
+     *
+     * @param value 字段值(不为null)
+     * @return 字符串
+     */
+    default String format(T value) {
+        return value.toString();
+    }
+}
@@ -0,0 +1,231 @@
+package com.handler.datasources;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.Date;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 列值转换器注册表
+ * 内置常用类型的转换器：读取JDBC结果集时优先按原生类型读取，列类型不匹配(如数字、日期存放在字符串列中)时按字符串解析；
+ * 日期类型写入时按时间戳绑定。没有注册转换器的类型按字符串读取后交给ValueConverter转换，写入时直接使用字段值
+ * 自定义转换器需要在实体类第一次使用前注册
+ */
+public final class ColumnConverters {
+
+    private static final DateTimeFormatter DATE_TIME_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    private static final Map<Class<?>, ColumnConverter<?>> CONVERTERS = new ConcurrentHashMap<>();
+
+    static {
+        register(String.class, new ColumnConverter<String>() {
+            @Override
+            public String fromString(String value) {
+                return value;
+            }
+        });
+        NativeReader<Long> longReader = (rs, i) -> {
+            long value = rs.getLong(i);
+            return rs.wasNull() ? null : value;
+        };
+        registerNumber(Long.class, long.class, text -> ValueConverter.parseLong(text), longReader);
+        NativeReader<Integer> intReader = (rs, i) -> {
+            int value = rs.getInt(i);
+            return rs.wasNull() ? null : value;
+        };
+        registerNumber(Integer.class, int.class, text -> (int) ValueConverter.parseLong(text), intReader);
+        NativeReader<Short> shortReader = (rs, i) -> {
+            short value = rs.getShort(i);
+            return rs.wasNull() ? null : value;
+        };
+        registerNumber(Short.class, short.class, text -> (short) ValueConverter.parseLong(text), shortReader);
+        NativeReader<Byte> byteReader = (rs, i) -> {
+            byte value = rs.getByte(i);
+            return rs.wasNull() ? null : value;
+        };
+        registerNumber(Byte.class, byte.class, text -> (byte) ValueConverter.parseLong(text), byteReader);
+        NativeReader<Double> doubleReader = (rs, i) -> {
+            double value = rs.getDouble(i);
+            return rs.wasNull() ? null : value;
+        };
+        registerNumber(Double.class, double.class, text -> Double.parseDouble(ValueConverter.stripComma(text)), doubleReader);
+        NativeReader<Float> floatReader = (rs, i) -> {
+            float value = rs.getFloat(i);
+            return rs.wasNull() ? null : value;
+        };
+        registerNumber(Float.class, float.class, text -> Float.parseFloat(ValueConverter.stripComma(text)), floatReader);
+        register(BigDecimal.class, new NativeConverter<>(text -> new BigDecimal(ValueConverter.stripComma(text)),
+                ResultSet::getBigDecimal));
+        register(BigInteger.class, new NativeConverter<>(text -> new BigDecimal(ValueConverter.stripComma(text)).toBigInteger(),
+                (rs, i) -> {
+                    BigDecimal value = rs.getBigDecimal(i);
+                    return null == value ? null : value.toBigInteger();
+                }));
+
+        // 布尔值常以1/0、Y/N存放在字符串列中，统一按字符串解析
+        ColumnConverter<Boolean> booleanConverter = new ParsingConverter<>(ValueConverter::parseBoolean);
+        register(Boolean.class, booleanConverter);
+        register(boolean.class, booleanConverter);
+        ColumnConverter<Character> charConverter = new ParsingConverter<>(text -> text.charAt(0));
+        register(Character.class, charConverter);
+        register(char.class, charConverter);
+
+        register(Date.class, new NativeConverter<Date>(ValueConverter::parseDate, (rs, i) -> {
+            Timestamp value = rs.getTimestamp(i);
+            return null == value ? null : new Date(value.getTime());
+        }) {
+            @Override
+            public Object toParameter(Date value) {
+                return new Timestamp(value.getTime());
+            }
+
+            @Override
+            public String format(Date value) {
+                return DATE_TIME_FORMATTER.format(value.toInstant().atZone(ZoneId.systemDefault()));
+            }
+        });
+        register(Timestamp.class, new NativeConverter<Timestamp>(text -> new Timestamp(ValueConverter.parseDate(text).getTime()),
+                ResultSet::getTimestamp) {
+            @Override
+            public String format(Timestamp value) {
+                return DATE_TIME_FORMATTER.format(value.toLocalDateTime());
+            }
+        });
+        register(java.sql.Date.class, new NativeConverter<>(text -> new java.sql.Date(ValueConverter.parseDate(text).getTime()),
+                ResultSet::getDate));
+        register(LocalDateTime.class, new NativeConverter<LocalDateTime>(
+                text -> ValueConverter.parseDate(text).toInstant().atZone(ZoneId.systemDefault()).toLocalDateTime(),
+                (rs, i) -> {
+                    Timestamp value = rs.getTimestamp(i);
+                    return null == value ? null : value.toLocalDateTime();
+                }) {
+            @Override
+            public Object toParameter(LocalDateTime value) {
+                return Timestamp.valueOf(value);
+            }
+
+            @Override
+            public String format(LocalDateTime value) {
+                return DATE_TIME_FORMATTER.format(value);
+            }
+        });
+        register(LocalDate.class, new NativeConverter<LocalDate>(
+                text -> ValueConverter.parseDate(text).toInstant().atZone(ZoneId.systemDefault()).toLocalDate(),
+                (rs, i) -> {
+                    java.sql.Date value = rs.getDate(i);
+                    return null == value ? null : value.toLocalDate();
+                }) {
+            @Override
+            public Object toParameter(LocalDate value) {
+                return java.sql.Date.valueOf(value);
+            }
+        });
+    }
+
+    private ColumnConverters() {
+    }
+
+    /**
+     * 注册转换器(覆盖已有的转换器)
+     * 只对之后第一次使用的实体类生效
+     *
+     * @param type      字段类型
+     * @param converter 转换器
+     * @param <T>       字段类型
+     */
+    public static <T> void register(Class<T> type, ColumnConverter<? super T> converter) {
+        CONVERTERS.put(type, converter);
+    }
+
+    /**
+     * 获取字段类型对应的转换器(实体元数据及编译时生成的映射器使用)
+     *
+     * @param type 字段类型
+     * @return 转换器(没有注册时按字符串读取后交给ValueConverter转换，写入时直接使用字段值)
+     */
+    @SuppressWarnings("unchecked")
+    public static ColumnConverter<Object> of(Class<?> type) {
+        ColumnConverter<?> converter = CONVERTERS.get(type);
+        if (null != converter) {
+            return (ColumnConverter<Object>) converter;
+        }
+        return value -> ValueConverter.convert(value, type);
+    }
+
+    private static <T> void registerNumber(Class<T> type, Class<?> primitiveType, Parser<T> parser, NativeReader<T> reader) {
+        ColumnConverter<T> converter = new NativeConverter<>(parser, reader);
+        CONVERTERS.put(type, converter);
+        CONVERTERS.put(primitiveType, converter);
+    }
+
+    @FunctionalInterface
+    private interface Parser<T> {
+
+        /**
+         * @param text 去掉首尾空白后的非空字符串
+         */
+        T parse(String text);
+    }
+
+    @FunctionalInterface
+    private interface NativeReader<T> {
+
+        T read(ResultSet resultSet, int columnIndex) throws SQLException;
+    }
+
+    /**
+     * 只能按字符串解析的转换器
+     * 空字符串及"null"解析为null
+     */
+    private static class ParsingConverter<T> implements ColumnConverter<T> {
+
+        private final Parser<T> parser;
+
+        ParsingConverter(Parser<T> parser) {
+            this.parser = parser;
+        }
+
+        @Override
+        public T fromString(String value) {
+            if (null == value) {
+                return null;
+            }
+            String text = value.trim();
+            if (text.isEmpty() || "null".equalsIgnoreCase(text)) {
+                return null;
+            }
+            return parser.parse(text);
+        }
+    }
+
+    /**
+     * 优先按原生类型读取的转换器
+     * 列类型与字段类型不匹配导致读取失败时按字符串解析
+     */
+    private static class NativeConverter<T> extends ParsingConverter<T> {
+
+        private final NativeReader<T> reader;
+
+        NativeConverter(Parser<T> parser, NativeReader<T> reader) {
+            super(parser);
+            this.reader = reader;
+        }
+
+        @Override
+        public T read(ResultSet resultSet, int columnIndex) throws SQLException {
+            try {
+                return reader.read(resultSet, columnIndex);
+            } catch (SQLException | RuntimeException e) {
+                return fromString(resultSet.getString(columnIndex));
+            }
+        }
+    }
+}
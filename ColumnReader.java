@@ -0,0 +1,58 @@
+package com.handler.datasources;
+
+import weaver.conn.RecordSet;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * 按列序号读取当前行的值
+ * RecordSet只能按字符串读取后解析，JDBC的ResultSet交给转换器按原生类型读取
+ */
+interface ColumnReader {
+
+    /**
+     * @param columnIndex 列序号(从1开始)
+     * @param converter   字段的转换器
+     * @return 字段值
+     */
+    Object read(int columnIndex, ColumnConverter<Object> converter) throws SQLException;
+
+    /**
+     * 使用编译时生成的映射器读取当前行
+     *
+     * @param mapper        映射器
+     * @param columnIndexes 各属性(按映射器的下标)在结果集中的列序号(0表示没有该列)
+     * @param skipEmpty     是否跳过空值
+     * @return 实体对象
+     */
+    Object readRow(EntityMapper<Object> mapper, int[] columnIndexes, boolean skipEmpty) throws SQLException;
+
+    static ColumnReader of(RecordSet recordSet) {
+        return new ColumnReader() {
+            @Override
+            public Object read(int columnIndex, ColumnConverter<Object> converter) {
+                return converter.fromString(recordSet.getString(columnIndex));
+            }
+
+            @Override
+            public Object readRow(EntityMapper<Object> mapper, int[] columnIndexes, boolean skipEmpty) {
+                return mapper.readRow(recordSet, columnIndexes, skipEmpty);
+            }
+        };
+    }
+
+    static ColumnReader of(ResultSet resultSet) {
+        return new ColumnReader() {
+            @Override
+            public Object read(int columnIndex, ColumnConverter<Object> converter) throws SQLException {
+                return converter.read(resultSet, columnIndex);
+            }
+
+            @Override
+            public Object readRow(EntityMapper<Object> mapper, int[] columnIndexes, boolean skipEmpty) throws SQLException {
+                return mapper.readRow(resultSet, columnIndexes, skipEmpty);
+            }
+        };
+    }
+}
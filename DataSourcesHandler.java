@@ -2,35 +2,72 @@ package com.handler.datasources;
 
 import cn.hutool.core.date.DateUtil;
 import cn.hutool.core.util.ObjectUtil;
-import com.alibaba.fastjson.JSON;
-import com.alibaba.fastjson.JSONObject;
-import com.annotation.ColumnName;
-import com.annotation.TableName;
-import com.annotation.TableMapping;
+import com.annotation.ChangeTracking;
 import com.engine.core.exception.ECException;
 import com.util.ModeServiceUtil;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import weaver.conn.RecordSet;
+import weaver.formmode.setup.ModeRightInfo;
 import weaver.general.StringUtil;
 import weaver.hrm.User;
 
 import javax.xml.bind.Element;
+import java.io.OutputStream;
+import java.io.Writer;
 import java.lang.reflect.Array;
-import java.lang.reflect.Field;
-import java.lang.reflect.InvocationTargetException;
-import java.lang.reflect.Method;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * 反射实现自动封装sql语句并执行语句再赋值
  * 数据处理类
+ * 线程安全：每次操作使用各自的RecordSet(或连接)，实体元数据和sql缓存在所有实例间共享，可以作为单例使用
  */
 public class DataSourcesHandler {
 
     private final Log log = LogFactory.getLog(this.getClass());
 
-    private final RecordSet rs = new RecordSet();
+    /**
+     * 流式查询每次从数据库读取的行数
+     */
+    private volatile int fetchSize = 1000;
+
+    /**
+     * 批量执行时每一批的行数
+     */
+    private volatile int batchSize = 500;
+
+    /**
+     * 异步查询及并行查询使用的线程池(为null时使用默认线程池)
+     */
+    private volatile Executor executor;
+
+    /**
+     * 批量保存建模数据时同时调用保存接口的线程数
+     */
+    private volatile int insertParallelism = 4;
+
+    /**
+     * 建模数据保存接口(insert每次保存时获取，batchInsert每个保存线程获取一个，保存接口不保证线程安全)
+     */
+    private volatile Supplier<ModeServiceUtil> modeServiceUtil = ModeServiceUtil::new;
+
+    /**
+     * 批量保存建模数据后建权使用的ModeRightInfo(每次批量保存获取一个)
+     */
+    private volatile Supplier<ModeRightInfo> modeRightInfo = ModeRightInfo::new;
 
 
     /**
@@ -45,51 +82,212 @@ public class DataSourcesHandler {
             throw new ECException("参数[id]不能为空");
         }
         T t = null;
+        EntityMetadata metadata = EntityMetadata.of(clazz);
         String tableName = this.getTableName(clazz);
-        String executeSql = "select * from " + tableName + " where id = ?";
-        rs.executeQuery(executeSql, id);
-        Field[] fields = getAllFields(clazz);
-        if (rs.next()) {
-            Map<String, Object> map = new HashMap<>();
-            for (Field field : fields) {
-                String fieldName = this.getFieldName(field);
-                String value = rs.getString(fieldName);
-                if (ObjectUtil.isNotEmpty(value)) {
-                    map.put(fieldName, value);
+        LruCache<Object, Object> cache = EntityReadCache.region(clazz, tableName);
+        long version = 0;
+        if (null != cache) {
+            Object cached = cache.get(id);
+            if (null != cached) {
+                return clazz.cast(metadata.copy(cached));
+            }
+            version = EntityReadCache.version(tableName);
+        }
+        QueryTimer timer = QueryTimer.start("selectById");
+        String executeSql = metadata.getSql("selectById", tableName, new BitSet(),
+                () -> "select " + metadata.getColumnString() + " from " + tableName + " where id = ?");
+        timer.built(executeSql, id);
+        RecordSet rs = this.executeQuery(timer, executeSql, id);
+        try {
+            if (rs.next()) {
+                RowMapper rowMapper = metadata.getRowMapper(rs.getColumnName());
+                t = clazz.cast(rowMapper.map(ColumnReader.of(rs), true));
+                if (null != cache) {
+                    EntityReadCache.put(cache, tableName, version, id, metadata.copy(t));
                 }
             }
-            t = JSON.parseObject(JSON.toJSONString(map), clazz);
+            timer.finish(null != t ? 1 : 0);
+        } catch (RuntimeException e) {
+            timer.fail(e);
+            throw e;
         }
         return t;
     }
 
+    /**
+     * 根据ID批量查询
+     *
+     * @param ids   数据ID集合
+     * @param clazz 数据类型
+     * @return ID -> 数据实体(按传入ID的顺序，不存在的ID不包含在结果中)
+     */
+    public <T> Map<Long, T> selectByIds(Collection<Long> ids, Class<T> clazz) {
+        return this.selectByIds(ids, clazz, false);
+    }
+
+    /**
+     * 根据ID批量查询
+     * 去重后按数据库允许的in(...)长度分批查询，代替循环调用selectById
+     *
+     * @param ids      数据ID集合
+     * @param clazz    数据类型
+     * @param parallel 是否并行查询各批
+     * @return ID -> 数据实体(按传入ID的顺序，不存在的ID不包含在结果中)
+     */
+    public <T> Map<Long, T> selectByIds(Collection<Long> ids, Class<T> clazz, boolean parallel) {
+        Map<Long, T> result = new LinkedHashMap<>();
+        if (null == ids || ids.isEmpty()) {
+            return result;
+        }
+        List<Long> idList = new ArrayList<>(new LinkedHashSet<>(ids));
+        idList.remove(null);
+        EntityMetadata metadata = EntityMetadata.of(clazz);
+        EntityField idField = metadata.getFieldByColumn("id");
+        if (null == idField) {
+            throw new ECException("CLASS【" + clazz.getTypeName() + "】中没有id字段");
+        }
+        int chunkSize = Dialect.current().maxInSize();
+        List<List<Long>> chunks = new ArrayList<>();
+        for (int start = 0; start < idList.size(); start += chunkSize) {
+            chunks.add(idList.subList(start, Math.min(start + chunkSize, idList.size())));
+        }
+        List<List<T>> chunkResults = new ArrayList<>();
+        if (parallel && chunks.size() > 1) {
+            List<Supplier<List<T>>> queries = new ArrayList<>();
+            for (List<Long> chunk : chunks) {
+                queries.add(() -> this.selectChunkByIds(chunk, clazz));
+            }
+            chunkResults.addAll(this.parallel(queries));
+        } else {
+            for (List<Long> chunk : chunks) {
+                chunkResults.add(this.selectChunkByIds(chunk, clazz));
+            }
+        }
+        Map<Long, T> found = new HashMap<>();
+        for (List<T> chunkResult : chunkResults) {
+            for (T t : chunkResult) {
+                found.put(ValueConverter.toLong(idField.get(t)), t);
+            }
+        }
+        for (Long id : idList) {
+            T t = found.get(id);
+            if (null != t) {
+                result.put(id, t);
+            }
+        }
+        return result;
+    }
+
     public static void main(String[] args) {
 
     }
 
     /**
      * 根据条件查询一条数据
+     * 最多只从数据库读取两行(用于判断是否有多条数据)
      *
      * @param condition 查询条件
      * @param <T>       数据类型
      * @return 查询结果
      */
+    @SuppressWarnings("unchecked")
     public <T> T selectOne(T condition) {
         if (null == condition) {
             return null;
         }
-        List<T> list = this.selectList(condition);
-        if (null != list && list.size() > 1) {
-            log.error("selectOne 方法作用为查询一条数据，但查询结果中包含" + list.size() + "条数据");
-            throw new ECException("selectOne 方法作用为查询一条数据，但查询结果中包含" + list.size() + "条数据");
+        String tableName = this.getTableName(condition.getClass());
+        EntityMetadata metadata = EntityMetadata.of(condition.getClass());
+        LruCache<Object, Object> cache = EntityReadCache.region(condition.getClass(), tableName);
+        List<Object> cacheKey = null;
+        long version = 0;
+        if (null != cache) {
+            cacheKey = this.conditionKey(condition);
+            Object cached = cache.get(cacheKey);
+            if (null != cached) {
+                return (T) metadata.copy(cached);
+            }
+            version = EntityReadCache.version(tableName);
         }
-        if (null != list && list.size() == 1) {
+        QueryTimer timer = QueryTimer.start("selectOne");
+        List<Object> whereValue = new ArrayList<>();
+        String executeSql = this.conditionSql("selectOne", condition, whereValue, (table, where) -> Dialect.current()
+                .limit("select " + metadata.getColumnString() + " from " + table + " where 1 = 1" + where, null, 2));
+        timer.built(executeSql, whereValue);
+        RecordSet rs = this.executeQuery(timer, executeSql, whereValue);
+        List<T> list = new ArrayList<>(2);
+        try {
+            RowMapper rowMapper = metadata.getRowMapper(rs.getColumnName());
+            while (list.size() < 2 && rs.next()) {
+                list.add((T) rowMapper.map(ColumnReader.of(rs), false));
+            }
+            timer.finish(list.size());
+        } catch (RuntimeException e) {
+            timer.fail(e);
+            throw e;
+        }
+        if (list.size() > 1) {
+            log.error("selectOne 方法作用为查询一条数据，但查询结果中包含多条数据");
+            throw new ECException("selectOne 方法作用为查询一条数据，但查询结果中包含多条数据");
+        }
+        if (list.size() == 1) {
+            if (null != cache) {
+                EntityReadCache.put(cache, tableName, version, cacheKey, metadata.copy(list.get(0)));
+            }
             return list.get(0);
         } else {
             return null;
         }
     }
 
+    /**
+     * 根据条件判断数据是否存在
+     * 只查询一行常量，不封装实体
+     *
+     * @param condition 查询条件
+     * @return 是否存在
+     */
+    public boolean exists(Object condition) {
+        if (null == condition) {
+            return false;
+        }
+        QueryTimer timer = QueryTimer.start("exists");
+        List<Object> whereValue = new ArrayList<>();
+        String executeSql = this.conditionSql("exists", condition, whereValue,
+                (tableName, where) -> Dialect.current().limit("select 1 from " + tableName + " where 1 = 1" + where, null, 1));
+        timer.built(executeSql, whereValue);
+        RecordSet rs = this.executeQuery(timer, executeSql, whereValue);
+        boolean result = rs.next();
+        timer.finish(result ? 1 : 0);
+        return result;
+    }
+
+    /**
+     * 根据条件统计数据条数
+     *
+     * @param condition 查询条件
+     * @return 数据条数
+     */
+    public long count(Object condition) {
+        if (null == condition) {
+            return 0;
+        }
+        QueryTimer timer = QueryTimer.start("count");
+        List<Object> whereValue = new ArrayList<>();
+        String executeSql = this.conditionSql("count", condition, whereValue,
+                (tableName, where) -> "select count(*) from " + tableName + " where 1 = 1" + where);
+        timer.built(executeSql, whereValue);
+        RecordSet rs = this.executeQuery(timer, executeSql, whereValue);
+        long result;
+        try {
+            result = rs.next() ? ValueConverter.parseLong(rs.getString(1)) : 0;
+        } catch (RuntimeException e) {
+            timer.fail(e);
+            throw e;
+        }
+        timer.finish(1);
+        return result;
+    }
+
     /**
      * 根据条件查询
      *
@@ -97,353 +295,1132 @@ public class DataSourcesHandler {
      * @param <T>       数据类型
      * @return 查询结果
      */
-    @SuppressWarnings({"unused", "unchecked"})
+    @SuppressWarnings("unused")
     public <T> List<T> selectList(T condition) {
+        return this.selectList(condition, new String[0]);
+    }
+
+    /**
+     * 根据条件查询(只查询指定的属性)
+     *
+     * @param condition 查询条件
+     * @param fields    只查询的属性名(为空时查询实体中映射的所有列)
+     * @param <T>       数据类型
+     * @return 查询结果
+     */
+    @SuppressWarnings({"unused", "unchecked"})
+    public <T> List<T> selectList(T condition, String... fields) {
         if (null == condition) {
             return null;
         }
+        QueryTimer timer = QueryTimer.start("selectList");
         List<T> result = new ArrayList<>();
         Class<?> clazz = condition.getClass();
-        String tableName = this.getTableName(clazz);
-        StringBuilder whereKey = new StringBuilder();
         List<Object> whereValue = new ArrayList<>();
-        if (ObjectUtil.isNotNull(condition)) {
-            Field[] fields = this.getAllFields(clazz);
-            for (Field field : fields) {
-                String fieldName = this.getFieldName(field);
-                Object fieldValue = this.getFieldValue(condition, field.getName());
-                if (null != fieldValue) {
-                    whereKey.append(" and ").append(fieldName).append(" = ?");
-                    whereValue.add(fieldValue);
+        String executeSql = this.selectSql(condition, fields, whereValue);
+        timer.built(executeSql, whereValue);
+        RecordSet rs = this.executeQuery(timer, executeSql, whereValue);
+        try {
+            RowMapper rowMapper = EntityMetadata.of(clazz).getRowMapper(rs.getColumnName());
+            while (rs.next()) {
+                result.add((T) rowMapper.map(ColumnReader.of(rs), false));
+            }
+            timer.finish(result.size());
+        } catch (RuntimeException e) {
+            timer.fail(e);
+            throw e;
+        }
+        return result;
+    }
+
+    /**
+     * 分页查询
+     *
+     * @param condition 查询条件
+     * @param pageStart 起始页
+     * @param pageSize  每页数量
+     * @param <T>       数据类型
+     * @return 查询结果
+     */
+    @SuppressWarnings("unused")
+    public <T> List<T> selectPage(T condition, Long pageStart, Long pageSize) {
+        return this.selectPage(condition, pageStart, pageSize, new String[0]);
+    }
+
+    /**
+     * 分页查询(只查询指定的属性)
+     *
+     * @param condition 查询条件
+     * @param pageStart 起始页
+     * @param pageSize  每页数量
+     * @param fields    只查询的属性名(为空时查询实体中映射的所有列)
+     * @param <T>       数据类型
+     * @return 查询结果
+     */
+    @SuppressWarnings({"unused", "unchecked"})
+    public <T> List<T> selectPage(T condition, Long pageStart, Long pageSize, String... fields) {
+        if (null == condition) {
+            return null;
+        }
+        QueryTimer timer = QueryTimer.start("selectPage");
+        List<T> result = new ArrayList<>();
+        Class<?> clazz = condition.getClass();
+        List<Object> whereValue = new ArrayList<>();
+        String executeSql = Dialect.current().page(this.selectSql(condition, fields, whereValue), null, pageStart, pageSize);
+        timer.built(executeSql, whereValue);
+        RecordSet rs = this.executeQuery(timer, executeSql, whereValue);
+        try {
+            RowMapper rowMapper = EntityMetadata.of(clazz).getRowMapper(rs.getColumnName());
+            while (rs.next()) {
+                result.add((T) rowMapper.map(ColumnReader.of(rs), false));
+            }
+            timer.finish(result.size());
+        } catch (RuntimeException e) {
+            timer.fail(e);
+            throw e;
+        }
+        return result;
+    }
+
+    /**
+     * 游标分页查询(按id分页)
+     *
+     * @param condition 查询条件
+     * @param cursor    上一页返回的游标(查询第一页时为null)
+     * @param pageSize  每页数量
+     * @param <T>       数据类型
+     * @return 查询结果及下一页的游标
+     */
+    public <T> KeysetPage<T> selectPageByKey(T condition, String cursor, int pageSize) {
+        return this.selectPageByKey(condition, "id", cursor, pageSize);
+    }
+
+    /**
+     * 游标分页查询
+     * 按 keyColumn > 上一页最后一条的值 order by keyColumn 分页，
+     * 与 limit pageStart, pageSize 不同，翻到多深的页都只扫描本页的数据
+     *
+     * @param condition 查询条件
+     * @param keyColumn 分页列(必须是实体中映射的、有索引且值唯一的列)
+     * @param cursor    上一页返回的游标(查询第一页时为null)
+     * @param pageSize  每页数量
+     * @param <T>       数据类型
+     * @return 查询结果及下一页的游标
+     */
+    @SuppressWarnings("unchecked")
+    public <T> KeysetPage<T> selectPageByKey(T condition, String keyColumn, String cursor, int pageSize) {
+        if (null == condition) {
+            return null;
+        }
+        if (pageSize <= 0) {
+            throw new ECException("参数[pageSize]必须大于0");
+        }
+        QueryTimer timer = QueryTimer.start("selectPageByKey");
+        Class<?> clazz = condition.getClass();
+        EntityMetadata metadata = EntityMetadata.of(clazz);
+        EntityField keyField = metadata.getFieldByColumn(keyColumn);
+        if (null == keyField) {
+            throw new ECException("CLASS【" + clazz.getTypeName() + "】中没有与分页列[" + keyColumn + "]对应的字段");
+        }
+        List<Object> whereValue = new ArrayList<>();
+        boolean hasCursor = ObjectUtil.isNotEmpty(cursor);
+        String keyCondition = hasCursor ? " and " + keyField.getColumnName() + " > ?" : "";
+        String baseSql = this.conditionSql(hasCursor ? "keyset:" + keyField.getColumnName() : "select", condition, whereValue,
+                (tableName, where) -> "select " + metadata.getColumnString() + " from " + tableName + " where 1 = 1" + where + keyCondition);
+        if (hasCursor) {
+            whereValue.add(keyField.toParameter(keyField.parse(cursor)));
+        }
+        String executeSql = Dialect.current().limit(baseSql, keyField.getColumnName(), pageSize + 1);
+        timer.built(executeSql, whereValue);
+        RecordSet rs = this.executeQuery(timer, executeSql, whereValue);
+        List<T> result = new ArrayList<>();
+        try {
+            RowMapper rowMapper = metadata.getRowMapper(rs.getColumnName());
+            while (rs.next()) {
+                result.add((T) rowMapper.map(ColumnReader.of(rs), false));
+            }
+            timer.finish(result.size());
+        } catch (RuntimeException e) {
+            timer.fail(e);
+            throw e;
+        }
+        String nextCursor = null;
+        if (result.size() > pageSize) {
+            result.remove(pageSize);
+            Object lastKey = keyField.get(result.get(pageSize - 1));
+            nextCursor = lastKey instanceof Date ? DateUtil.format((Date) lastKey, "yyyy-MM-dd HH:mm:ss.SSS") : String.valueOf(lastKey);
+        }
+        return new KeysetPage<>(result, nextCursor);
+    }
+
+    /**
+     * 自定义SQL查询一条数据
+     * 该方法仅用于复杂sql
+     *
+     * @param clazz     数据类型
+     * @param sql       自定义查询的SQL
+     * @param condition 条件
+     * @param <T>       数据类型
+     * @return 查询结果
+     */
+    public <T> T customSelectOne(Class<T> clazz, String sql, Object... condition) {
+        QueryTimer timer = QueryTimer.start("customSelectOne");
+        timer.built(sql, condition);
+        RecordSet rs = this.executeQuery(timer, sql, condition);
+        T t = null;
+        try {
+            if (rs.next()) {
+                t = clazz.cast(EntityMetadata.of(clazz).getRowMapper(rs.getColumnName()).map(ColumnReader.of(rs), false));
+            }
+            timer.finish(null != t ? 1 : 0);
+        } catch (RuntimeException e) {
+            timer.fail(e);
+            throw e;
+        }
+        return t;
+    }
+
+    /**
+     * 自定义SQL查询
+     * 该方法仅用于复杂sql
+     *
+     * @param clazz     数据类型
+     * @param sql       自定义查询的SQL
+     * @param condition 查询条件
+     * @param <T>       数据类型
+     * @return 查询结果集
+     */
+    public <T> List<T> customSelectList(Class<T> clazz, String sql, Object... condition) {
+        QueryTimer timer = QueryTimer.start("customSelectList");
+        timer.built(sql, condition);
+        List<T> result = new ArrayList<>();
+        RecordSet rs = this.executeQuery(timer, sql, condition);
+        try {
+            RowMapper rowMapper = EntityMetadata.of(clazz).getRowMapper(rs.getColumnName());
+            while (rs.next()) {
+                result.add(clazz.cast(rowMapper.map(ColumnReader.of(rs), false)));
+            }
+            timer.finish(result.size());
+        } catch (RuntimeException e) {
+            timer.fail(e);
+            throw e;
+        }
+        return result;
+    }
+
+    /**
+     * 自定义SQL查询(缓存查询结果)
+     * 相同的sql(忽略多余的空白)及参数在有效期内只查询一次，适用于字典、配置等读多写少的查询；
+     * 通过本工具类对tables中的表增删改后缓存的结果失效，其它方式修改的数据在缓存有效期内查询不到(见QueryResultCache)
+     *
+     * @param clazz     数据类型
+     * @param sql       自定义查询的SQL
+     * @param tables    查询依赖的表(可以为null)
+     * @param condition 查询条件
+     * @param <T>       数据类型
+     * @return 查询结果集(集合可以修改，其中的实体为共享实例，不要修改)
+     */
+    @SuppressWarnings("unchecked")
+    public <T> List<T> customSelectListCached(Class<T> clazz, String sql, String[] tables, Object... condition) {
+        QueryResultCache.ResultKey key = QueryResultCache.key(clazz, sql, condition);
+        Object cached = QueryResultCache.get(key);
+        if (null != cached) {
+            return new ArrayList<>((List<T>) cached);
+        }
+        long[] versions = QueryResultCache.versions(tables);
+        List<T> result = this.customSelectList(clazz, sql, condition);
+        QueryResultCache.put(key, new ArrayList<>(result), tables, versions);
+        return result;
+    }
+
+    /**
+     * 根据条件流式查询
+     * 逐行读取并封装，内存占用与结果行数无关，适用于大表导出
+     * 返回的Stream持有数据库连接，必须在try-with-resources中使用或读取完毕，否则连接不会归还
+     *
+     * @param condition 查询条件
+     * @param <T>       数据类型
+     * @return 查询结果流
+     */
+    @SuppressWarnings("unchecked")
+    public <T> Stream<T> selectStream(T condition) {
+        if (null == condition) {
+            return Stream.empty();
+        }
+        Class<T> clazz = (Class<T>) condition.getClass();
+        List<Object> whereValue = new ArrayList<>();
+        QueryTimer timer = QueryTimer.start("selectStream");
+        String executeSql = this.selectSql(condition, null, whereValue);
+        timer.built(executeSql, whereValue);
+        return this.toStream(new QueryCursor<>(clazz, executeSql, whereValue.toArray(), fetchSize, timer));
+    }
+
+    /**
+     * 自定义SQL流式查询
+     * 返回的Stream持有数据库连接，必须在try-with-resources中使用或读取完毕，否则连接不会归还
+     *
+     * @param clazz     数据类型
+     * @param sql       自定义查询的SQL
+     * @param condition 查询条件
+     * @param <T>       数据类型
+     * @return 查询结果流
+     */
+    public <T> Stream<T> customSelectStream(Class<T> clazz, String sql, Object... condition) {
+        QueryTimer timer = QueryTimer.start("customSelectStream");
+        timer.built(sql, condition);
+        return this.toStream(new QueryCursor<>(clazz, sql, condition, fetchSize, timer));
+    }
+
+    /**
+     * 根据条件逐行处理查询结果
+     *
+     * @param condition 查询条件
+     * @param action    每一行的处理逻辑
+     * @param <T>       数据类型
+     */
+    public <T> void forEach(T condition, Consumer<? super T> action) {
+        try (Stream<T> stream = this.selectStream(condition)) {
+            stream.forEach(action);
+        }
+    }
+
+    /**
+     * 自定义SQL逐行处理查询结果
+     *
+     * @param clazz     数据类型
+     * @param sql       自定义查询的SQL
+     * @param action    每一行的处理逻辑
+     * @param condition 查询条件
+     * @param <T>       数据类型
+     */
+    public <T> void customForEach(Class<T> clazz, String sql, Consumer<? super T> action, Object... condition) {
+        try (Stream<T> stream = this.customSelectStream(clazz, sql, condition)) {
+            stream.forEach(action);
+        }
+    }
+
+    /**
+     * 设置流式查询每次从数据库读取的行数
+     * MySQL驱动需要在连接参数中开启useCursorFetch=true才会按该值分批读取
+     *
+     * @param fetchSize 每次读取的行数(必须大于0)
+     */
+    public void setFetchSize(int fetchSize) {
+        if (fetchSize <= 0) {
+            throw new ECException("参数[fetchSize]必须大于0");
+        }
+        this.fetchSize = fetchSize;
+    }
+
+    /**
+     * 自定义查询(查询一条记录)
+     * 只封装第一行
+     *
+     * @param executeSql 查询sql
+     * @param condition 查询条件
+     * @return 查询结果(没有数据时为null)
+     */
+    public Map<String, String> customSelectOne(String executeSql, Object... condition) {
+        QueryTimer timer = QueryTimer.start("customSelectOne");
+        timer.built(executeSql, condition);
+        RecordSet rs = this.executeQuery(timer, executeSql, condition);
+        Map<String, String> map = null;
+        try {
+            if (rs.next()) {
+                map = new HashMap<>();
+                for (String columnName : rs.getColumnName()) {
+                    map.put(columnName, rs.getString(columnName));
                 }
             }
+            timer.finish(null != map ? 1 : 0);
+        } catch (RuntimeException e) {
+            timer.fail(e);
+            throw e;
         }
-        String executeSql = "select * from " + tableName + " where 1 = 1 " + whereKey.toString();
-        rs.executeQuery(executeSql, whereValue);
-        Field[] fields = getAllFields(clazz);
-        Map<String, Object> map;
-        while (rs.next()) {
-            map = new LinkedHashMap<>();
-            String[] columnNames = rs.getColumnName();
-            for (Field field : fields) {
-                String fieldName = this.getFieldName(field);
+        return map;
+    }
+
+    /**
+     * 自定义查询
+     * 每行一个HashMap，返回行数较多时使用customSelectTable
+     *
+     * @param executeSql 查询sql
+     * @param condition 查询条件
+     * @return 查询结果
+     */
+    public List<Map<String, String>> customSelectList(String executeSql, Object... condition) {
+        QueryTimer timer = QueryTimer.start("customSelectList");
+        timer.built(executeSql, condition);
+        List<Map<String, String>> list = new ArrayList<>();
+        RecordSet rs = this.executeQuery(timer, executeSql, condition);
+        try {
+            Map<String, String> map;
+            while (rs.next()) {
+                map = new HashMap<>();
+                String[] columnNames = rs.getColumnName();
                 for (String columnName : columnNames) {
-                    if (columnName.toLowerCase().equals(fieldName.toLowerCase())) {
-                        map.put(field.getName(), rs.getString(fieldName));
+                    map.put(columnName, rs.getString(columnName));
+                }
+                list.add(map);
+            }
+            timer.finish(list.size());
+        } catch (RuntimeException e) {
+            timer.fail(e);
+            throw e;
+        }
+        return list;
+    }
+
+    /**
+     * 自定义查询(紧凑结果)
+     * 与customSelectList(String, Object...)相同，但所有行共用一份列名，每行只保存一个值数组，适用于返回行数较多的报表查询
+     *
+     * @param executeSql 查询sql
+     * @param condition  查询条件
+     * @return 查询结果(每一行为只读的Map视图)
+     */
+    public ResultTable customSelectTable(String executeSql, Object... condition) {
+        QueryTimer timer = QueryTimer.start("customSelectTable");
+        timer.built(executeSql, condition);
+        RecordSet rs = this.executeQuery(timer, executeSql, condition);
+        String[] columnNames = rs.getColumnName();
+        ResultTable table = new ResultTable(null != columnNames ? columnNames : new String[0]);
+        int columnCount = null != columnNames ? columnNames.length : 0;
+        try {
+            while (rs.next()) {
+                String[] values = new String[columnCount];
+                for (int i = 0; i < columnCount; i++) {
+                    values[i] = rs.getString(i + 1);
+                }
+                table.addRow(values);
+            }
+            timer.finish(table.size());
+        } catch (RuntimeException e) {
+            timer.fail(e);
+            throw e;
+        }
+        return table;
+    }
+
+    /**
+     * 自定义查询(缓存查询结果)
+     * 缓存规则与customSelectListCached(Class, String, String[], Object...)相同，结果以紧凑的ResultTable缓存
+     *
+     * @param executeSql 查询sql
+     * @param tables     查询依赖的表(可以为null)
+     * @param condition  查询条件
+     * @return 查询结果(只读)
+     */
+    public List<Map<String, String>> customSelectListCached(String executeSql, String[] tables, Object... condition) {
+        QueryResultCache.ResultKey key = QueryResultCache.key(null, executeSql, condition);
+        Object cached = QueryResultCache.get(key);
+        if (null != cached) {
+            return (ResultTable) cached;
+        }
+        long[] versions = QueryResultCache.versions(tables);
+        ResultTable result = this.customSelectTable(executeSql, condition);
+        QueryResultCache.put(key, result, tables, versions);
+        return result;
+    }
+
+    /**
+     * 保存数据
+     *
+     * @param object 数据实体
+     * @return 是否保存成功
+     */
+    public boolean save(Object object) {
+        if (null == object) {
+            return false;
+        }
+        List<Object> list = new ArrayList<>();
+        list.add(object);
+        return this.batchSave(list);
+    }
+
+    /**
+     * 批量保存
+     *
+     * @param objectList 数据实体集
+     * @return 是否保存成功
+     */
+    public boolean batchSave(List<Object> objectList) {
+        if (null == objectList || objectList.size() == 0) {
+            return false;
+        }
+        try {
+            this.batchSave(objectList, batchSize);
+            return true;
+        } catch (ECException e) {
+            return false;
+        }
+    }
+
+    /**
+     * 批量保存
+     * 使用预编译的insert语句按批JDBC批量执行，所有批次在同一个事务中，任何一批失败时全部回滚
+     *
+     * @param objectList 数据实体集(类型必须相同)
+     * @param chunkSize  每一批的行数
+     * @return 每一批插入的行数
+     */
+    public BatchResult batchSave(List<?> objectList, int chunkSize) {
+        BatchResult result = new BatchResult();
+        if (null == objectList || objectList.size() == 0) {
+            return result;
+        }
+        if (chunkSize <= 0) {
+            throw new ECException("参数[chunkSize]必须大于0");
+        }
+        QueryTimer timer = QueryTimer.start("batchSave");
+        Class<?> clazz = objectList.get(0).getClass();
+        String tableName = this.getTableName(clazz);
+        EntityMetadata metadata = EntityMetadata.of(clazz);
+        List<EntityField> fields = metadata.getFields();
+        String executeSql = "insert into " + tableName + "(" + metadata.getColumnString() + ") values ("
+                + this.placeholders(fields.size()) + ")";
+        timer.built(executeSql, null);
+        try {
+            JdbcHelper.inTransaction(connection -> {
+                try (PreparedStatement statement = connection.prepareStatement(executeSql)) {
+                    int rows = 0;
+                    for (Object object : objectList) {
+                        Object[] values = metadata.parameters(object);
+                        for (int i = 0; i < fields.size(); i++) {
+                            JdbcHelper.setParameter(statement, i + 1, values[i], fields.get(i).getType());
+                        }
+                        statement.addBatch();
+                        if (++rows % chunkSize == 0) {
+                            result.addChunk(statement.executeBatch());
+                        }
+                    }
+                    if (rows % chunkSize != 0) {
+                        result.addChunk(statement.executeBatch());
+                    }
+                }
+                return result;
+            });
+            timer.executed();
+            timer.finish(result.getTotalCount());
+        } catch (SQLException | RuntimeException e) {
+            timer.fail(e);
+            log.error("批量保存失败[" + executeSql + "]", e);
+            throw new ECException("批量保存失败[" + executeSql + "]", e);
+        } finally {
+            this.afterWrite(tableName);
+        }
+        return result;
+    }
+
+    /**
+     * 设置批量执行时每一批的行数
+     *
+     * @param batchSize 每一批的行数(必须大于0)
+     */
+    public void setBatchSize(int batchSize) {
+        if (batchSize <= 0) {
+            throw new ECException("参数[batchSize]必须大于0");
+        }
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * 保存数据(可建权)
+     *
+     * @param entity     实体类
+     * @param formModeId 模块ID(保存后数据显示在哪个模块中)
+     * @param user       操作的用户
+     * @return 调用保存接口后的返回值
+     */
+    public String insert(Object entity, int formModeId, User user) {
+        EntityMetadata metadata = EntityMetadata.of(entity.getClass());
+        String result = modeServiceUtil.get().addMoidfyModeData(user.getUID(), formModeId, 0, false, this.saveData(metadata, entity), null);
+        if (null != metadata.getTableName() || null != metadata.getMappingName()) {
+            this.afterWrite(this.getTableName(entity.getClass()));
+        }
+        return result;
+    }
+
+    /**
+     * 批量保存数据(可建权)
+     * 与insert一样逐条调用保存接口(默认值、编号规则、系统字段等由保存接口处理)，但保存时不建权：
+     * 多条数据同时调用保存接口(同时调用的线程数见setInsertParallelism，每个线程使用各自的保存接口)，
+     * 全部保存完成后再统一对保存成功的数据建权(只使用一个ModeRightInfo)，单条数据失败不影响其它数据
+     *
+     * @param entityList 实体类集合(类型必须相同)
+     * @param formModeId 模块ID(保存后数据显示在哪个模块中)
+     * @param user       操作的用户
+     * @return 每条数据的数据ID及失败原因(保存接口的返回值不是数据ID时同样记录为失败)
+     */
+    public ModeInsertResult batchInsert(List<?> entityList, int formModeId, User user) {
+        int size = null == entityList ? 0 : entityList.size();
+        ModeInsertResult result = new ModeInsertResult(size);
+        if (size == 0) {
+            return result;
+        }
+        int uid = user.getUID();
+        Class<?> clazz = entityList.get(0).getClass();
+        EntityMetadata metadata = EntityMetadata.of(clazz);
+
+        // 保存(不建权)
+        AtomicInteger next = new AtomicInteger();
+        List<Supplier<Void>> workers = new ArrayList<>();
+        for (int i = 0; i < Math.min(insertParallelism, size); i++) {
+            workers.add(() -> {
+                ModeServiceUtil serviceUtil = modeServiceUtil.get();
+                for (int index = next.getAndIncrement(); index < size; index = next.getAndIncrement()) {
+                    Object entity = entityList.get(index);
+                    try {
+                        if (null == entity || entity.getClass() != clazz) {
+                            throw new ECException("第" + index + "条数据为空或类型与第一条数据不同");
+                        }
+                        String saved = serviceUtil.addMoidfyModeData(uid, formModeId, 0, false, this.saveData(metadata, entity), null);
+                        Integer billId = this.parseBillId(saved);
+                        if (null == billId) {
+                            log.error("DataSourcesHandler【批量保存第" + index + "条数据失败】保存接口返回值：" + saved);
+                            result.addError(index, "保存接口返回值[" + saved + "]不是数据ID");
+                        } else {
+                            result.setBillId(index, billId);
+                        }
+                    } catch (RuntimeException e) {
+                        log.error("DataSourcesHandler【批量保存第" + index + "条数据失败】", e);
+                        result.addError(index, String.valueOf(e.getMessage()));
                     }
                 }
+                return null;
+            });
+        }
+        try {
+            this.parallel(workers);
+        } finally {
+            if (null != metadata.getTableName() || null != metadata.getMappingName()) {
+                this.afterWrite(this.getTableName(clazz));
+            }
+        }
+
+        // 统一建权
+        List<Integer> billIds = result.getBillIds();
+        if (result.getSuccessCount() > 0) {
+            ModeRightInfo rightInfo = modeRightInfo.get();
+            rightInfo.setNewRight(true);
+            for (int index = 0; index < size; index++) {
+                Integer billId = billIds.get(index);
+                if (null == billId) {
+                    continue;
+                }
+                try {
+                    rightInfo.editModeDataShare(uid, formModeId, billId);
+                } catch (RuntimeException e) {
+                    log.error("DataSourcesHandler【批量保存第" + index + "条数据建权失败】", e);
+                    result.addError(index, "建权失败：" + e.getMessage());
+                }
             }
-            result.add((T) JSON.parseObject(JSON.toJSONString(map), condition.getClass()));
         }
         return result;
     }
 
     /**
-     * 分页查询
+     * 设置批量保存建模数据时同时调用保存接口的线程数
      *
-     * @param condition 查询条件
-     * @param pageStart 起始页
-     * @param pageSize  每页数量
+     * @param insertParallelism 线程数(必须大于0)
+     */
+    public void setInsertParallelism(int insertParallelism) {
+        if (insertParallelism <= 0) {
+            throw new ECException("参数[insertParallelism]必须大于0");
+        }
+        this.insertParallelism = insertParallelism;
+    }
+
+    /**
+     * 设置建模数据保存接口(默认new ModeServiceUtil())
+     *
+     * @param modeServiceUtil 获取保存接口(insert每次保存时调用，batchInsert每个保存线程调用一次)
+     */
+    public void setModeServiceUtil(Supplier<ModeServiceUtil> modeServiceUtil) {
+        this.modeServiceUtil = modeServiceUtil;
+    }
+
+    /**
+     * 设置批量保存建模数据后建权使用的ModeRightInfo(默认每次批量保存new ModeRightInfo())
+     *
+     * @param modeRightInfo 每次批量保存获取ModeRightInfo
+     */
+    public void setModeRightInfo(Supplier<ModeRightInfo> modeRightInfo) {
+        this.modeRightInfo = modeRightInfo;
+    }
+
+    /**
+     * 更新数据
+     *
+     * @param entity 数据实体(ID字段不能为空)
+     * @return 是否更新成功
+     */
+    public boolean updateById(Object entity) {
+        if (null == entity) {
+            return false;
+        }
+        QueryTimer timer = QueryTimer.start("updateById");
+        Class<?> clazz = entity.getClass();
+        EntityMetadata metadata = EntityMetadata.of(clazz);
+        EntityField idField = metadata.getFieldByColumn("id");
+        Object idValue = null != idField ? idField.get(entity) : null;
+        String id = null != idValue ? idValue.toString() : null;
+        if (StringUtil.isEmpty(id)) {
+            throw new ECException("id字段为空");
+        }
+        List<EntityField> fields = metadata.getFields();
+        BitSet columns = new BitSet(fields.size());
+        List<Object> whereList = new ArrayList<>();
+        for (int i = 0; i < fields.size(); i++) {
+            EntityField field = fields.get(i);
+            Object value = field.get(entity);
+            if (field != idField && ObjectUtil.isNotEmpty(value)) {
+                columns.set(i);
+                whereList.add(field.toParameter(value));
+            }
+        }
+        if (columns.isEmpty()) {
+            // 没有需要更新的字段
+            return true;
+        }
+        whereList.add(id);
+        String executeSql = this.updateSql(clazz, columns);
+        timer.built(executeSql, whereList);
+        boolean result = this.executeUpdate(timer, executeSql, whereList);
+        this.afterWrite(this.getTableName(clazz));
+        return result;
+    }
+
+    /**
+     * 批量更新数据
+     * 与updateById规则相同(只更新非空字段)，非空字段相同的实体合并为同一条预编译语句按批JDBC批量执行，
+     * 所有批次在同一个事务中，任何一批失败时全部回滚
+     *
+     * @param entityList 数据实体集(类型必须相同，ID字段不能为空)
+     * @return 每一批更新的行数
+     */
+    public BatchResult batchUpdateById(List<?> entityList) {
+        BatchResult result = new BatchResult();
+        if (null == entityList || entityList.size() == 0) {
+            return result;
+        }
+        Class<?> clazz = entityList.get(0).getClass();
+        EntityMetadata metadata = EntityMetadata.of(clazz);
+        EntityField idField = metadata.getFieldByColumn("id");
+        if (null == idField) {
+            throw new ECException("CLASS【" + clazz.getTypeName() + "】中没有id字段");
+        }
+        List<EntityField> fields = metadata.getFields();
+        Map<BitSet, List<Object>> groups = new LinkedHashMap<>();
+        for (Object entity : entityList) {
+            if (ObjectUtil.isEmpty(idField.get(entity))) {
+                throw new ECException("id字段为空");
+            }
+            BitSet columns = new BitSet(fields.size());
+            for (int i = 0; i < fields.size(); i++) {
+                EntityField field = fields.get(i);
+                if (field != idField && ObjectUtil.isNotEmpty(field.get(entity))) {
+                    columns.set(i);
+                }
+            }
+            if (!columns.isEmpty()) {
+                groups.computeIfAbsent(columns, key -> new ArrayList<>()).add(entity);
+            }
+        }
+        try {
+            JdbcHelper.inTransaction(connection -> {
+                for (Map.Entry<BitSet, List<Object>> group : groups.entrySet()) {
+                    QueryTimer timer = QueryTimer.start("batchUpdateById");
+                    BitSet columns = group.getKey();
+                    String executeSql = this.updateSql(clazz, columns);
+                    timer.built(executeSql, null);
+                    int before = result.getTotalCount();
+                    try (PreparedStatement statement = connection.prepareStatement(executeSql)) {
+                        int rows = 0;
+                        for (Object entity : group.getValue()) {
+                            int index = 1;
+                            for (int i = columns.nextSetBit(0); i >= 0; i = columns.nextSetBit(i + 1)) {
+                                EntityField field = fields.get(i);
+                                JdbcHelper.setParameter(statement, index++, field.toParameter(field.get(entity)), field.getType());
+                            }
+                            JdbcHelper.setParameter(statement, index, idField.get(entity), idField.getType());
+                            statement.addBatch();
+                            if (++rows % batchSize == 0) {
+                                result.addChunk(statement.executeBatch());
+                            }
+                        }
+                        if (rows % batchSize != 0) {
+                            result.addChunk(statement.executeBatch());
+                        }
+                        timer.executed();
+                        timer.finish(result.getTotalCount() - before);
+                    } catch (SQLException | RuntimeException e) {
+                        timer.fail(e);
+                        throw e;
+                    }
+                }
+                return result;
+            });
+        } catch (SQLException | RuntimeException e) {
+            log.error("批量更新失败[" + clazz.getTypeName() + "]", e);
+            throw new ECException("批量更新失败[" + clazz.getTypeName() + "]", e);
+        } finally {
+            this.afterWrite(this.getTableName(clazz));
+        }
+        return result;
+    }
+
+    /**
+     * 根据条件删除
+     *
+     * @param condition 删除的条件(实体类)
+     * @return 是否删除成功
+     */
+    public boolean delete(Object condition) {
+        if (null == condition) {
+            return false;
+        }
+        QueryTimer timer = QueryTimer.start("delete");
+        List<Object> conditionList = new ArrayList<>();
+        String executeSql = this.conditionSql("delete", condition, conditionList,
+                (tableName, where) -> "delete from " + tableName + " where 1 = 1" + where);
+        if (conditionList.size() == 0) {
+            log.error("不能清空表数据[删除条件中未包含任何值]");
+            throw new ECException("不能清空表数据[删除条件中未包含任何值]");
+        }
+        timer.built(executeSql, conditionList);
+        boolean result = this.executeUpdate(timer, executeSql, conditionList);
+        this.afterWrite(this.getTableName(condition.getClass()));
+        return result;
+    }
+
+    /**
+     * 根据ID批量删除
+     * 去重后按数据库允许的in(...)长度分批删除，所有批次在同一个事务中
+     *
+     * @param clazz 数据类型
+     * @param ids   数据ID集合
+     * @return 每一批删除的行数
+     */
+    public BatchResult deleteByIds(Class<?> clazz, Collection<Long> ids) {
+        BatchResult result = new BatchResult();
+        if (null == ids || ids.isEmpty()) {
+            return result;
+        }
+        List<Long> idList = new ArrayList<>(new LinkedHashSet<>(ids));
+        idList.remove(null);
+        if (idList.isEmpty()) {
+            return result;
+        }
+        String tableName = this.getTableName(clazz);
+        int chunkSize = Dialect.current().maxInSize();
+        try {
+            JdbcHelper.inTransaction(connection -> {
+                for (int start = 0; start < idList.size(); start += chunkSize) {
+                    List<Long> chunk = idList.subList(start, Math.min(start + chunkSize, idList.size()));
+                    QueryTimer timer = QueryTimer.start("deleteByIds");
+                    String executeSql = "delete from " + tableName + " where id in (" + this.placeholders(chunk.size()) + ")";
+                    timer.built(executeSql, chunk);
+                    try (PreparedStatement statement = connection.prepareStatement(executeSql)) {
+                        JdbcHelper.bind(statement, chunk);
+                        int rows = statement.executeUpdate();
+                        timer.executed();
+                        result.addChunk(new int[]{rows});
+                        timer.finish(rows);
+                    } catch (SQLException | RuntimeException e) {
+                        timer.fail(e);
+                        throw e;
+                    }
+                }
+                return result;
+            });
+        } catch (SQLException | RuntimeException e) {
+            log.error("批量删除失败[" + tableName + "]", e);
+            throw new ECException("批量删除失败[" + tableName + "]", e);
+        } finally {
+            this.afterWrite(tableName);
+        }
+        return result;
+    }
+
+    /**
+     * 增量拉取(每批最多1000条)
+     *
+     * @param clazz     数据类型
+     * @param watermark 上一次拉取返回的水位(第一次拉取时为null)
      * @param <T>       数据类型
-     * @return 查询结果
+     * @return 本批变更的数据及下一次拉取使用的水位
+     */
+    public <T> ChangeBatch<T> selectChangedSince(Class<T> clazz, String watermark) {
+        return this.selectChangedSince(clazz, watermark, 1000);
+    }
+
+    /**
+     * 增量拉取
+     * 按(修改日期, 修改时间, id)排序，每次只查询水位之后的一批数据，耗时与变更的数据量成正比而与表的大小无关；
+     * 修改时间列由实体类上的ChangeTracking注解指定，没有该注解时按id拉取(只能拉取新增的数据)
+     * 修改日期、时间为空(且创建日期、时间也为空)的数据不会被拉取
+     *
+     * @param clazz     数据类型
+     * @param watermark 上一次拉取返回的水位(第一次拉取时为null)
+     * @param limit     每批最多的条数
+     * @param <T>       数据类型
+     * @return 本批变更的数据及下一次拉取使用的水位
+     */
+    public <T> ChangeBatch<T> selectChangedSince(Class<T> clazz, String watermark, int limit) {
+        if (limit <= 0) {
+            throw new ECException("参数[limit]必须大于0");
+        }
+        QueryTimer timer = QueryTimer.start("selectChangedSince");
+        EntityMetadata metadata = EntityMetadata.of(clazz);
+        String tableName = this.getTableName(clazz);
+        ChangeTracking tracking = metadata.getChangeTracking();
+        String dateExpr = null != tracking ? this.coalesce(tracking.dateColumn(), tracking.createDateColumn()) : null;
+        String timeExpr = null != tracking ? this.coalesce(tracking.timeColumn(), tracking.createTimeColumn()) : null;
+        boolean hasWatermark = ObjectUtil.isNotEmpty(watermark);
+        List<Object> whereValue = new ArrayList<>();
+        if (hasWatermark) {
+            String[] parts = watermark.split("\\|", -1);
+            try {
+                if (null == tracking && parts.length == 1) {
+                    whereValue.add(Long.valueOf(parts[0]));
+                } else if (null != tracking && parts.length == 3) {
+                    Long id = Long.valueOf(parts[2]);
+                    Collections.addAll(whereValue, parts[0], parts[0], parts[1], parts[0], parts[1], id);
+                } else {
+                    throw new ECException("水位[" + watermark + "]格式不正确");
+                }
+            } catch (NumberFormatException e) {
+                throw new ECException("水位[" + watermark + "]格式不正确", e);
+            }
+        }
+        String executeSql = metadata.getSql("changedSince:" + limit + (hasWatermark ? ":after" : ""), tableName, new BitSet(), () -> {
+            String columns = "select " + metadata.getColumnString() + ", id wm_id_";
+            if (null == tracking) {
+                return Dialect.current().limit(columns + " from " + tableName + (hasWatermark ? " where id > ?" : ""),
+                        "id", limit + 1);
+            }
+            String where = hasWatermark ? " where (" + dateExpr + " > ? or (" + dateExpr + " = ? and " + timeExpr + " > ?) or ("
+                    + dateExpr + " = ? and " + timeExpr + " = ? and id > ?)) and " + timeExpr + " is not null"
+                    : " where " + dateExpr + " is not null and " + timeExpr + " is not null";
+            return Dialect.current().limit(columns + ", " + dateExpr + " wm_date_, " + timeExpr + " wm_time_ from " + tableName
+                    + where, dateExpr + ", " + timeExpr + ", id", limit + 1);
+        });
+        timer.built(executeSql, whereValue);
+        RecordSet rs = this.executeQuery(timer, executeSql, whereValue);
+        int watermarkColumn = metadata.getFields().size() + 1;
+        List<T> result = new ArrayList<>();
+        String nextWatermark = watermark;
+        boolean hasMore = false;
+        try {
+            RowMapper rowMapper = metadata.getRowMapper(rs.getColumnName());
+            while (rs.next()) {
+                if (result.size() == limit) {
+                    hasMore = true;
+                    break;
+                }
+                result.add(clazz.cast(rowMapper.map(ColumnReader.of(rs), false)));
+                nextWatermark = null == tracking ? rs.getString(watermarkColumn)
+                        : rs.getString(watermarkColumn + 1) + "|" + rs.getString(watermarkColumn + 2) + "|" + rs.getString(watermarkColumn);
+            }
+            timer.finish(result.size());
+        } catch (RuntimeException e) {
+            timer.fail(e);
+            throw e;
+        }
+        return new ChangeBatch<>(result, nextWatermark, hasMore);
+    }
+
+    // 以下为导出方法————————————————————————————————————————————————————————————————————————————————————————————————————————
+
+    /**
+     * 根据条件导出(UTF-8)
+     * 逐行读取并直接写入输出，内存占用与结果行数无关
+     *
+     * @param condition 查询条件
+     * @param format    导出格式
+     * @param out       输出(导出完成后不关闭)
+     * @param gzip      是否gzip压缩
+     * @return 导出的行数
+     */
+    public long export(Object condition, ExportFormat format, OutputStream out, boolean gzip) {
+        if (null == condition) {
+            return 0;
+        }
+        QueryTimer timer = QueryTimer.start("export");
+        List<Object> whereValue = new ArrayList<>();
+        String executeSql = this.selectSql(condition, null, whereValue);
+        timer.built(executeSql, whereValue);
+        return ResultExporter.export(executeSql, whereValue.toArray(), fetchSize, format, out, gzip, timer);
+    }
+
+    /**
+     * 根据条件导出
+     *
+     * @param condition 查询条件
+     * @param format    导出格式
+     * @param writer    输出(导出完成后不关闭)
+     * @return 导出的行数
      */
-    @SuppressWarnings({"unused", "unchecked"})
-    public <T> List<T> selectPage(T condition, Long pageStart, Long pageSize) {
+    public long export(Object condition, ExportFormat format, Writer writer) {
         if (null == condition) {
-            return null;
+            return 0;
         }
-        List<T> result = new ArrayList<>();
-        Class<?> clazz = condition.getClass();
-        String tableName = this.getTableName(clazz);
-        StringBuilder whereKey = new StringBuilder();
+        QueryTimer timer = QueryTimer.start("export");
         List<Object> whereValue = new ArrayList<>();
-        if (ObjectUtil.isNotNull(condition)) {
-            Field[] fields = this.getAllFields(clazz);
-            for (Field field : fields) {
-                String fieldName = this.getFieldName(field);
-                Object fieldValue = this.getFieldValue(condition, fieldName);
-                if (null != fieldValue) {
-                    whereKey.append(" and ").append(fieldName).append(" = ?");
-                    whereValue.add(fieldValue);
-                }
-            }
-        }
-        String executeSql = "select * from " + tableName + " where 1 = 1 " + whereKey.toString()
-                + " limit " + pageStart + ", " + pageSize;
-        rs.executeQuery(executeSql, whereValue);
-        Field[] fields = getAllFields(clazz);
-        Map<String, Object> map;
-        while (rs.next()) {
-            map = new LinkedHashMap<>();
-            String[] columnNames = rs.getColumnName();
-            for (Field field : fields) {
-                String fieldName = this.getFieldName(field);
-                for (String columnName : columnNames) {
-                    if (columnName.toLowerCase().equals(fieldName.toLowerCase())) {
-                        map.put(field.getName(), rs.getString(fieldName));
-                    }
-                }
-            }
-            result.add((T) JSON.parseObject(JSON.toJSONString(map), condition.getClass()));
-        }
-        return result;
+        String executeSql = this.selectSql(condition, null, whereValue);
+        timer.built(executeSql, whereValue);
+        return ResultExporter.export(executeSql, whereValue.toArray(), fetchSize, format, writer, timer);
     }
 
     /**
-     * 自定义SQL查询一条数据
-     * 该方法仅用于复杂sql
+     * 自定义SQL导出(UTF-8)
+     * 逐行读取并直接写入输出，内存占用与结果行数无关
      *
-     * @param clazz     数据类型
      * @param sql       自定义查询的SQL
-     * @param condition 条件
-     * @param <T>       数据类型
-     * @return 查询结果
+     * @param format    导出格式
+     * @param out       输出(导出完成后不关闭)
+     * @param gzip      是否gzip压缩
+     * @param condition 查询条件
+     * @return 导出的行数
      */
-    public <T> T customSelectOne(Class<T> clazz, String sql, Object... condition) {
-        List<T> list = this.customSelectList(clazz, sql, condition);
-        if (null != list && list.size() > 0) {
-            return list.get(0);
-        } else {
-            return null;
-        }
+    public long customExport(String sql, ExportFormat format, OutputStream out, boolean gzip, Object... condition) {
+        QueryTimer timer = QueryTimer.start("customExport");
+        timer.built(sql, condition);
+        return ResultExporter.export(sql, condition, fetchSize, format, out, gzip, timer);
     }
 
     /**
-     * 自定义SQL查询
-     * 该方法仅用于复杂sql
+     * 自定义SQL导出
      *
-     * @param clazz     数据类型
      * @param sql       自定义查询的SQL
+     * @param format    导出格式
+     * @param writer    输出(导出完成后不关闭)
+     * @param condition 查询条件
+     * @return 导出的行数
+     */
+    public long customExport(String sql, ExportFormat format, Writer writer, Object... condition) {
+        QueryTimer timer = QueryTimer.start("customExport");
+        timer.built(sql, condition);
+        return ResultExporter.export(sql, condition, fetchSize, format, writer, timer);
+    }
+
+    // 以下为异步查询方法——————————————————————————————————————————————————————————————————————————————————————————————————
+
+    /**
+     * 异步根据ID查询
+     *
+     * @param id    数据ID(不能为空)
+     * @param clazz 数据类型
+     * @return 数据实体
+     */
+    public <T> CompletableFuture<T> selectByIdAsync(Long id, Class<T> clazz) {
+        return this.async(() -> this.selectById(id, clazz));
+    }
+
+    /**
+     * 异步根据条件查询一条数据
+     *
      * @param condition 查询条件
      * @param <T>       数据类型
-     * @return 查询结果集
+     * @return 查询结果
      */
-    public <T> List<T> customSelectList(Class<T> clazz, String sql, Object... condition) {
-        List<T> result = new ArrayList<>();
-        Field[] fields = this.getAllFields(clazz);
-        Map<String, Object> map;
-        rs.executeQuery(sql, condition);
-        while (rs.next()) {
-            map = new LinkedHashMap<>();
-            String[] columnNames = rs.getColumnName();
-            for (Field field : fields) {
-                String fieldName = this.getFieldName(field);
-                for (String columnName : columnNames) {
-                    if (columnName.toLowerCase().equals(fieldName.toLowerCase())) {
-                        map.put(field.getName(), rs.getString(fieldName));
-                    }
-                }
-            }
-            result.add(JSON.parseObject(JSON.toJSONString(map), clazz));
-        }
-        return result;
+    public <T> CompletableFuture<T> selectOneAsync(T condition) {
+        return this.async(() -> this.selectOne(condition));
     }
 
     /**
-     * 自定义查询(查询一条记录)
+     * 异步根据条件查询
      *
-     * @param executeSql 查询sql
      * @param condition 查询条件
+     * @param fields    只查询的属性名(为空时查询实体中映射的所有列)
+     * @param <T>       数据类型
      * @return 查询结果
      */
-    public Map<String, String> customSelectOne(String executeSql, Object... condition) {
-        return customSelectList(executeSql, condition).get(0);
+    public <T> CompletableFuture<List<T>> selectListAsync(T condition, String... fields) {
+        return this.async(() -> this.selectList(condition, fields));
     }
 
     /**
-     * 自定义查询
+     * 异步分页查询
      *
-     * @param executeSql 查询sql
      * @param condition 查询条件
+     * @param pageStart 起始页
+     * @param pageSize  每页数量
+     * @param fields    只查询的属性名(为空时查询实体中映射的所有列)
+     * @param <T>       数据类型
      * @return 查询结果
      */
-    public List<Map<String, String>> customSelectList(String executeSql, Object... condition) {
-        List<Map<String, String>> list = new ArrayList<>();
-        rs.executeQuery(executeSql, condition);
-        Map<String, String> map;
-        while (rs.next()) {
-            map = new HashMap<>();
-            String[] columnNames = rs.getColumnName();
-            for (String columnName : columnNames) {
-                map.put(columnName, rs.getString(columnName));
-            }
-            list.add(map);
-        }
-        return list;
+    public <T> CompletableFuture<List<T>> selectPageAsync(T condition, Long pageStart, Long pageSize, String... fields) {
+        return this.async(() -> this.selectPage(condition, pageStart, pageSize, fields));
     }
 
     /**
-     * 保存数据
+     * 异步自定义SQL查询
      *
-     * @param object 数据实体
-     * @return 是否保存成功
+     * @param clazz     数据类型
+     * @param sql       自定义查询的SQL
+     * @param condition 查询条件
+     * @param <T>       数据类型
+     * @return 查询结果集
      */
-    public boolean save(Object object) {
-        if (null == object) {
-            return false;
-        }
-        List<Object> list = new ArrayList<>();
-        list.add(object);
-        return this.batchSave(list);
+    public <T> CompletableFuture<List<T>> customSelectListAsync(Class<T> clazz, String sql, Object... condition) {
+        return this.async(() -> this.customSelectList(clazz, sql, condition));
     }
 
     /**
-     * 批量保存
+     * 异步自定义查询
      *
-     * @param objectList 数据实体集
-     * @return 是否保存成功
+     * @param executeSql 查询sql
+     * @param condition  查询条件
+     * @return 查询结果
      */
-    public boolean batchSave(List<Object> objectList) {
-        if (null == objectList || objectList.size() == 0) {
-            return false;
-        }
-        Class<?> clazz = objectList.get(0).getClass();
-        String tableName = this.getTableName(clazz);
-        StringBuilder preSql = new StringBuilder("insert into ");
-        preSql.append(tableName).append("(").append(this.generateInsertColumnString(clazz)).append(")");
-        StringBuilder sql = new StringBuilder(preSql).append(" values ");
-        for (Object object : objectList) {
-            Field[] entityFields = this.getAllFields(object.getClass());
-            StringBuilder batchSql = new StringBuilder("(");
-            for (Field field : entityFields) {
-                Object value = this.getFieldValue(object, field.getName());
-                if (ObjectUtil.isNull(value)) {
-                    batchSql.append("null, ");
-                } else {
-                    batchSql.append(generateInsertFieldSql(value)).append(", ");
-                }
-            }
-            sql.append(batchSql.substring(0, batchSql.length() - 2)).append("), ");
-        }
-        String executeSql = sql.substring(0, sql.length() - 2);
-        return rs.execute(executeSql);
+    public CompletableFuture<List<Map<String, String>>> customSelectListAsync(String executeSql, Object... condition) {
+        return this.async(() -> this.customSelectList(executeSql, condition));
     }
 
     /**
-     * 保存数据(可建权)
+     * 并行执行多个互不依赖的查询并等待全部完成
+     * 总耗时取决于最慢的查询而不是所有查询耗时之和；
+     * 注意：在异步任务中(parallel的查询或*Async方法提交的任务中)调用时不再提交到线程池，而是在当前线程中依次执行，
+     * 否则有界线程池的线程可能全部阻塞在等待排队中的子任务上而死锁；并行方式的selectByIds及batchInsert同样如此
      *
-     * @param entity     实体类
-     * @param formModeId 模块ID(保存后数据显示在哪个模块中)
-     * @param user       操作的用户
-     * @return 调用保存接口后的返回值
+     * @param queries 查询
+     * @param <R>     查询结果类型
+     * @return 与queries顺序一致的查询结果
      */
-    @SuppressWarnings({"unused", "unchecked"})
-    public String insert(Object entity, int formModeId, User user) {
-        Map<String, Object> map = (Map<String, Object>) JSONObject.toJSON(entity);
-        Field[] fields = getAllFields(entity.getClass());
-        List<String> removeKeyList = new ArrayList<>();
-        Map<String, Object> addMap = new HashMap<>();
-        for (Map.Entry<String, Object> entry : map.entrySet()) {
-            String key = entry.getKey();
-            if (ObjectUtil.isEmpty(entry.getValue())) {
-                removeKeyList.add(key);
-                continue;
-            }
-            for (Field field : fields) {
-                ColumnName annotation = field.getAnnotation(ColumnName.class);
-                if (key.equals(field.getName())) {
-                    if (null != annotation) {
-                        removeKeyList.add(key);
-                        addMap.put(annotation.value(), entry.getValue());
-                    }
-                }
+    public <R> List<R> parallel(List<? extends Supplier<? extends R>> queries) {
+        if (AsyncExecutors.inTask()) {
+            List<R> result = new ArrayList<>(queries.size());
+            for (Supplier<? extends R> query : queries) {
+                result.add(query.get());
             }
+            return result;
         }
-        for (String key : removeKeyList) {
-            map.remove(key);
-        }
-        for (Map.Entry<String, Object> entry : addMap.entrySet()) {
-            map.put(entry.getKey(), entry.getValue());
-        }
-        Map<String, String> saveData = new HashMap<>();
-        for (Map.Entry<String, Object> entry : map.entrySet()) {
-            saveData.put(entry.getKey(), String.valueOf(entry.getValue()));
+        List<CompletableFuture<R>> futures = new ArrayList<>(queries.size());
+        for (Supplier<? extends R> query : queries) {
+            futures.add(this.async(query::get));
         }
-        return new ModeServiceUtil().addMoidfyModeData(user.getUID(), formModeId, 0, false, saveData, null);
+        return this.joinAll(futures);
     }
 
     /**
-     * 更新数据
+     * 并行执行多个互不依赖的查询并等待全部完成
      *
-     * @param entity 数据实体(ID字段不能为空)
-     * @return 是否更新成功
+     * @param queries 查询
+     * @return 与queries顺序一致的查询结果
      */
-    @SuppressWarnings({"unused", "unchecked"})
-    public boolean updateById(Object entity) {
-        if (null == entity) {
-            return false;
-        }
-        Map<String, Object> map = (Map<String, Object>) JSONObject.toJSON(entity);
-        String id = map.get("id").toString();
-        if (StringUtil.isEmpty(id)) {
-            throw new ECException("id字段为空");
-        }
-        Class<?> clazz = entity.getClass();
-        String tableName = this.getTableName(clazz);
-        Field[] fields = getAllFields(clazz);
-        List<String> removeKeyList = new ArrayList<>();
-        Map<String, Object> addMap = new HashMap<>();
-        for (Map.Entry<String, Object> entry : map.entrySet()) {
-            String key = entry.getKey();
-            if (ObjectUtil.isEmpty(entry.getValue()) || "id".equals(key)) {
-                removeKeyList.add(key);
-                continue;
-            }
-            for (Field field : fields) {
-                ColumnName annotation = field.getAnnotation(ColumnName.class);
-                if (key.equals(field.getName())) {
-                    if (null != annotation) {
-                        removeKeyList.add(key);
-                        addMap.put(annotation.value(), this.generateValue(entry.getValue()));
-                    }
-                }
-            }
-        }
-        for (String key : removeKeyList) {
-            map.remove(key);
-        }
-        for (Map.Entry<String, Object> entry : addMap.entrySet()) {
-            map.put(entry.getKey(), entry.getValue());
-        }
-        StringBuilder whereKey = new StringBuilder();
-        List<Object> whereList = new ArrayList<>();
-        for (Map.Entry<String, Object> entry : map.entrySet()) {
-            whereKey.append(", ").append(entry.getKey()).append(" = ?");
-            whereList.add(entry.getValue());
-        }
-        whereList.add(id);
-        String executeSql = "update " + tableName + " set id = " + id + whereKey.toString() + " where id = ?";
-        return rs.executeUpdate(executeSql, whereList);
+    public List<Object> parallel(Supplier<?>... queries) {
+        return this.parallel(Arrays.asList(queries));
     }
 
     /**
-     * 根据条件删除
+     * 设置异步查询及并行查询使用的线程池
      *
-     * @param condition 删除的条件(实体类)
-     * @return 是否删除成功
+     * @param executor 线程池(为null时使用默认线程池：支持虚拟线程的JDK上使用虚拟线程，否则使用有界线程池)
      */
-    public boolean delete(Object condition) {
-        if (null == condition) {
-            return false;
-        }
-        Class<?> clazz = condition.getClass();
-        String tableName = this.getTableName(clazz);
-        Field[] fields = this.getAllFields(clazz);
-        StringBuilder sql = new StringBuilder("delete from " + tableName + " where 1 = 1");
-        List<Object> conditionList = new ArrayList<>();
-        for (Field field : fields) {
-            String fieldName = this.getFieldName(field);
-            Object fieldValue = this.getFieldValue(condition, field.getName());
-            if (null != fieldValue) {
-                sql.append(" and ").append(fieldName).append(" = ?");
-                conditionList.add(fieldValue);
-            }
-        }
-        if (conditionList.size() == 0) {
-            log.error("不能清空表数据[删除条件中未包含任何值]");
-            throw new ECException("不能清空表数据[删除条件中未包含任何值]");
-        }
-        return rs.executeUpdate(sql.toString(), conditionList);
+    public void setExecutor(Executor executor) {
+        this.executor = executor;
     }
 
     /**
@@ -453,13 +1430,7 @@ public class DataSourcesHandler {
      * @return 表名
      */
     public static String getMappingTableName(String mappingName) {
-        RecordSet recordSet = new RecordSet();
-        recordSet.executeQuery("select * from workflow_mapping where action = 1 and name = ?", mappingName);
-        if (recordSet.next()) {
-            return recordSet.getString("table_name");
-        } else {
-            return null;
-        }
+        return WorkflowMappingCache.getTableName(mappingName);
     }
 
     /**
@@ -469,13 +1440,7 @@ public class DataSourcesHandler {
      * @return 流程ID
      */
     public static String getMappingWorkflowId(String mappingName) {
-        RecordSet recordSet = new RecordSet();
-        recordSet.executeQuery("select * from workflow_mapping where action = 1 and name = ?", mappingName);
-        if (recordSet.next()) {
-            return recordSet.getString("workflow_id");
-        } else {
-            return null;
-        }
+        return WorkflowMappingCache.getWorkflowId(mappingName);
     }
 
     // 以下方法为弃用的方法（慎用）——————————————————————————————————————————————————————————————————————————————————————————
@@ -506,12 +1471,12 @@ public class DataSourcesHandler {
      */
     @Deprecated
     public <T> List<T> selectList(Map<String, Object> condition, Class<T> clazz) {
+        QueryTimer timer = QueryTimer.start("selectList");
         List<T> result = new ArrayList<>();
-        TableName annotation = clazz.getAnnotation(TableName.class);
-        if (null == annotation) {
+        String tableName = EntityMetadata.of(clazz).getTableName();
+        if (null == tableName) {
             throw new ECException(clazz.getName() + " 类中没有添加TableName注解");
         }
-        String tableName = annotation.value();
         StringBuilder whereKey = new StringBuilder();
         List<Object> whereValue = new ArrayList<>();
         if (ObjectUtil.isNotNull(condition)) {
@@ -521,26 +1486,17 @@ public class DataSourcesHandler {
             }
         }
         String executeSql = "select * from " + tableName + " where 1 = 1 " + whereKey.toString();
-        rs.executeQuery(executeSql, whereValue);
-        Field[] fields = getAllFields(clazz);
-        Map<String, Object> map;
-        while (rs.next()) {
-            map = new LinkedHashMap<>();
-            String[] columnNames = rs.getColumnName();
-            for (Field field : fields) {
-                String fieldName;
-                if (null != field.getAnnotation(ColumnName.class)) {
-                    fieldName = field.getAnnotation(ColumnName.class).value();
-                } else {
-                    fieldName = field.getName();
-                }
-                for (String columnName : columnNames) {
-                    if (columnName.toLowerCase().equals(fieldName.toLowerCase())) {
-                        map.put(field.getName(), rs.getString(fieldName));
-                    }
-                }
+        timer.built(executeSql, whereValue);
+        RecordSet rs = this.executeQuery(timer, executeSql, whereValue);
+        try {
+            RowMapper rowMapper = EntityMetadata.of(clazz).getRowMapper(rs.getColumnName());
+            while (rs.next()) {
+                result.add(clazz.cast(rowMapper.map(ColumnReader.of(rs), false)));
             }
-            result.add(JSON.parseObject(JSON.toJSONString(map), clazz));
+            timer.finish(result.size());
+        } catch (RuntimeException e) {
+            timer.fail(e);
+            throw e;
         }
         return result;
     }
@@ -554,13 +1510,12 @@ public class DataSourcesHandler {
      * @return 表名
      */
     private String getTableName(Class<?> clazz) {
-        TableName tableNameAnnotation = clazz.getAnnotation(TableName.class);
-        if (null != tableNameAnnotation) {
-            return tableNameAnnotation.value();
+        EntityMetadata metadata = EntityMetadata.of(clazz);
+        if (null != metadata.getTableName()) {
+            return metadata.getTableName();
         } else {
-            TableMapping workflowMapping = clazz.getAnnotation(TableMapping.class);
-            if (null != workflowMapping) {
-                String mappingName = workflowMapping.value();
+            if (null != metadata.getMappingName()) {
+                String mappingName = metadata.getMappingName();
                 String tableName = getMappingTableName(mappingName);
                 if (null != tableName) {
                     return tableName;
@@ -577,109 +1532,294 @@ public class DataSourcesHandler {
     }
 
     /**
-     * 获取本类及父类的所有属性
+     * 写操作之后清空该表的缓存
      *
-     * @param clazz class类型
-     * @return 本类及父类的所有字段
+     * @param tableName 表名
      */
-    private Field[] getAllFields(Class<?> clazz) {
-        List<Field> fieldList = new ArrayList<>();
-        while (clazz != null) {
-            fieldList.addAll(new ArrayList<>(Arrays.asList(clazz.getDeclaredFields())));
-            clazz = clazz.getSuperclass();
-        }
-        Field[] fields = new Field[fieldList.size()];
-        return fieldList.toArray(fields);
+    private void afterWrite(String tableName) {
+        EntityReadCache.invalidate(tableName);
+        QueryResultCache.invalidate(tableName);
     }
 
     /**
-     * 获取字段名
+     * 根据条件实体生成查询sql
+     * 只查询实体中映射的列(或指定的属性对应的列)，不使用select *
      *
-     * @param field 字段信息
-     * @return 字段名
+     * @param condition  条件实体(不为null的字段作为条件)
+     * @param fieldNames 只查询的属性名(为空时查询实体中映射的所有列)
+     * @param whereValue 条件值(输出)
+     * @return sql
      */
-    private String getFieldName(Field field) {
-        ColumnName annotation = field.getAnnotation(ColumnName.class);
-        if (null != annotation) {
-            return annotation.value();
+    private String selectSql(Object condition, String[] fieldNames, List<Object> whereValue) {
+        String operation;
+        String columns;
+        if (null == fieldNames || fieldNames.length == 0) {
+            operation = "select";
+            columns = EntityMetadata.of(condition.getClass()).getColumnString();
         } else {
-            return field.getName();
+            columns = this.projectionColumns(condition.getClass(), fieldNames);
+            operation = "select:" + columns;
         }
+        return this.conditionSql(operation, condition, whereValue,
+                (tableName, where) -> "select " + columns + " from " + tableName + " where 1 = 1" + where);
     }
 
     /**
-     * 获取字段值
+     * 获取指定属性对应的列
      *
-     * @param object    实体类
-     * @param fieldName 字段名
-     * @return 字段值
+     * @param clazz      实体类
+     * @param fieldNames 属性名
+     * @return 以逗号分隔的列名
      */
-    private Object getFieldValue(Object object, String fieldName) {
-        if (ObjectUtil.isNull(object)) {
-            return null;
+    private String projectionColumns(Class<?> clazz, String[] fieldNames) {
+        EntityMetadata metadata = EntityMetadata.of(clazz);
+        StringJoiner columns = new StringJoiner(",");
+        for (String fieldName : fieldNames) {
+            EntityField field = metadata.getFieldByName(fieldName);
+            if (null == field) {
+                throw new ECException("CLASS【" + clazz.getTypeName() + "】中没有属性[" + fieldName + "]");
+            }
+            columns.add(field.getColumnName());
         }
-        Class<?> clazz = object.getClass();
-        String upperChar = fieldName.substring(0, 1).toUpperCase();
-        String anotherStr = fieldName.substring(1);
-        String methodName = "get" + upperChar + anotherStr;
-        Method method = null;
-        try {
-            method = clazz.getMethod(methodName);
-        } catch (NoSuchMethodException e) {
-            e.printStackTrace();
+        return columns.toString();
+    }
+
+    /**
+     * 根据条件实体生成sql
+     * 同一实体类、同一操作、同一组不为null的字段生成的sql相同，只在第一次时拼接，之后只收集条件值
+     *
+     * @param operation  操作
+     * @param condition  条件实体(不为null的字段作为条件)
+     * @param whereValue 条件值(输出)
+     * @param builder    根据表名及条件片段( and col = ?...)生成sql
+     * @return sql
+     */
+    private String conditionSql(String operation, Object condition, List<Object> whereValue,
+                                BiFunction<String, String, String> builder) {
+        Class<?> clazz = condition.getClass();
+        EntityMetadata metadata = EntityMetadata.of(clazz);
+        List<EntityField> fields = metadata.getFields();
+        BitSet mask = new BitSet(fields.size());
+        Object[] values = metadata.parameters(condition);
+        for (int i = 0; i < values.length; i++) {
+            if (null != values[i]) {
+                mask.set(i);
+                whereValue.add(values[i]);
+            }
+        }
+        String tableName = this.getTableName(clazz);
+        return metadata.getSql(operation, tableName, mask, () -> {
+            StringBuilder where = new StringBuilder();
+            for (int i = mask.nextSetBit(0); i >= 0; i = mask.nextSetBit(i + 1)) {
+                where.append(" and ").append(fields.get(i).getColumnName()).append(" = ?");
+            }
+            return builder.apply(tableName, where.toString());
+        });
+    }
+
+    /**
+     * 生成根据ID更新的sql
+     *
+     * @param clazz   实体类
+     * @param columns 需要更新的字段(按EntityMetadata.getFields()的下标)
+     * @return sql
+     */
+    private String updateSql(Class<?> clazz, BitSet columns) {
+        EntityMetadata metadata = EntityMetadata.of(clazz);
+        List<EntityField> fields = metadata.getFields();
+        String tableName = this.getTableName(clazz);
+        return metadata.getSql("update", tableName, columns, () -> {
+            StringBuilder setKey = new StringBuilder();
+            for (int i = columns.nextSetBit(0); i >= 0; i = columns.nextSetBit(i + 1)) {
+                setKey.append(setKey.length() == 0 ? "" : ", ").append(fields.get(i).getColumnName()).append(" = ?");
+            }
+            return "update " + tableName + " set " + setKey + " where id = ?";
+        });
+    }
+
+    /**
+     * 根据一批ID查询
+     * 参数个数补齐到2的幂(重复最后一个ID)，使不同数量的ID只生成少数几种sql
+     *
+     * @param ids   数据ID(不超过in(...)允许的长度)
+     * @param clazz 数据类型
+     * @return 查询结果
+     */
+    private <T> List<T> selectChunkByIds(List<Long> ids, Class<T> clazz) {
+        QueryTimer timer = QueryTimer.start("selectByIds");
+        EntityMetadata metadata = EntityMetadata.of(clazz);
+        String tableName = this.getTableName(clazz);
+        int size = Math.min(Integer.highestOneBit(ids.size() - 1) << 1, Dialect.current().maxInSize());
+        size = Math.max(size, ids.size());
+        List<Object> params = new ArrayList<>(ids);
+        while (params.size() < size) {
+            params.add(ids.get(ids.size() - 1));
         }
-        assert method != null;
-        method.setAccessible(true);
-        Object resultValue = null;
+        int count = size;
+        String executeSql = metadata.getSql("selectByIds:" + count, tableName, new BitSet(),
+                () -> "select " + metadata.getColumnString() + " from " + tableName + " where id in (" + this.placeholders(count) + ")");
+        timer.built(executeSql, params);
+        List<T> result = new ArrayList<>();
+        RecordSet rs = this.executeQuery(timer, executeSql, params);
         try {
-            resultValue = method.invoke(object);
-        } catch (IllegalAccessException | InvocationTargetException e) {
-            e.printStackTrace();
+            RowMapper rowMapper = metadata.getRowMapper(rs.getColumnName());
+            while (rs.next()) {
+                result.add(clazz.cast(rowMapper.map(ColumnReader.of(rs), true)));
+            }
+            timer.finish(result.size());
+        } catch (RuntimeException e) {
+            timer.fail(e);
+            throw e;
         }
-        return resultValue;
+        return result;
     }
 
     /**
-     * 生成insert语句的字段名字符串
+     * 生成条件实体的缓存key(所有字段的值)
      *
-     * @param clazz 实体类class
-     * @return sql
+     * @param condition 条件实体
+     * @return 缓存key
      */
-    private String generateInsertColumnString(Class<?> clazz) {
-        Field[] fields = getAllFields(clazz);
-        List<String> columnNames = new ArrayList<>();
-        for (Field field : fields) {
-            ColumnName columnNameAnnotation = field.getAnnotation(ColumnName.class);
-            if (null != columnNameAnnotation) {
-                columnNames.add(columnNameAnnotation.value());
-            } else {
-                columnNames.add(field.getName());
+    private List<Object> conditionKey(Object condition) {
+        List<EntityField> fields = EntityMetadata.of(condition.getClass()).getFields();
+        List<Object> key = new ArrayList<>(fields.size());
+        for (EntityField field : fields) {
+            key.add(field.get(condition));
+        }
+        return key;
+    }
+
+    /**
+     * 解析保存接口的返回值
+     *
+     * @param saved 保存接口的返回值
+     * @return 数据ID(返回值不是大于0的整数时为null)
+     */
+    private Integer parseBillId(String saved) {
+        if (StringUtil.isEmpty(saved)) {
+            return null;
+        }
+        try {
+            int billId = Integer.parseInt(saved.trim());
+            return billId > 0 ? billId : null;
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /**
+     * 生成保存接口需要的数据(列名 -> 值，跳过空值)
+     */
+    private Map<String, String> saveData(EntityMetadata metadata, Object entity) {
+        Map<String, String> saveData = new HashMap<>();
+        for (EntityField field : metadata.getFields()) {
+            Object value = field.get(entity);
+            if (ObjectUtil.isNotEmpty(value)) {
+                saveData.put(field.getColumnName(), field.format(value));
             }
         }
-        return String.join(",", columnNames);
+        return saveData;
+    }
+
+    /**
+     * 使用RecordSet执行查询
+     * RecordSet执行失败时不抛出异常(按没有数据处理)，这里记录为失败的执行
+     *
+     * @param timer  计时器
+     * @param sql    sql
+     * @param params 参数
+     * @return 查询结果
+     */
+    private RecordSet executeQuery(QueryTimer timer, String sql, Object... params) {
+        RecordSet rs = new RecordSet();
+        if (rs.executeQuery(sql, params)) {
+            timer.executed();
+        } else {
+            log.error("DataSourcesHandler【执行查询失败】" + sql);
+            timer.fail(new SQLException("RecordSet执行失败[" + sql + "]"));
+        }
+        return rs;
     }
 
-    private String generateValue(Object value) {
-        String result;
-        if (value instanceof Date) {
-            Date date = (Date) value;
-            result = DateUtil.format(date, "yyyy-MM-dd HH:mm:ss");
+    /**
+     * 使用RecordSet执行更新
+     *
+     * @param timer  计时器
+     * @param sql    sql
+     * @param params 参数
+     * @return 是否执行成功(失败时记录为失败的执行)
+     */
+    private boolean executeUpdate(QueryTimer timer, String sql, Object... params) {
+        boolean result = new RecordSet().executeUpdate(sql, params);
+        if (result) {
+            timer.executed();
+            timer.finish(-1);
         } else {
-            result = value.toString();
+            log.error("DataSourcesHandler【执行更新失败】" + sql);
+            timer.fail(new SQLException("RecordSet执行失败[" + sql + "]"));
         }
         return result;
     }
 
-    private String generateInsertFieldSql(Object value) {
-        String result;
-        if (value instanceof Date) {
-            Date date = (Date) value;
-            result = "'" + DateUtil.format(date, "yyyy-MM-dd HH:mm:ss") + "'";
-        } else {
-            result = "'" + value + "'";
+    private Executor getExecutor() {
+        Executor current = executor;
+        return null != current ? current : AsyncExecutors.defaultExecutor();
+    }
+
+    /**
+     * 提交异步任务(任务中再调用parallel时在当前线程中执行)
+     */
+    private <R> CompletableFuture<R> async(Supplier<R> supplier) {
+        return CompletableFuture.supplyAsync(AsyncExecutors.task(supplier), this.getExecutor());
+    }
+
+    /**
+     * 等待所有任务完成
+     * 任一任务失败时抛出该任务的异常
+     *
+     * @param futures 任务
+     * @return 与futures顺序一致的结果
+     */
+    private <R> List<R> joinAll(List<CompletableFuture<R>> futures) {
+        try {
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : e;
+        }
+        List<R> result = new ArrayList<>(futures.size());
+        for (CompletableFuture<R> future : futures) {
+            result.add(future.join());
         }
         return result;
     }
 
+    /**
+     * 优先使用第一列，为空时使用第二列(第二列为空字符串时只使用第一列)
+     */
+    private String coalesce(String column, String fallbackColumn) {
+        return StringUtil.isEmpty(fallbackColumn) ? column : "coalesce(" + column + ", " + fallbackColumn + ")";
+    }
+
+    /**
+     * 生成以逗号分隔的参数占位符
+     *
+     * @param count 参数个数
+     * @return ?, ?, ...
+     */
+    private String placeholders(int count) {
+        StringBuilder placeholders = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            placeholders.append(i == 0 ? "?" : ", ?");
+        }
+        return placeholders.toString();
+    }
+
+    /**
+     * 将游标包装为Stream，关闭Stream时关闭游标
+     */
+    private <T> Stream<T> toStream(QueryCursor<T> cursor) {
+        Spliterator<T> spliterator = Spliterators.spliteratorUnknownSize(cursor, Spliterator.ORDERED | Spliterator.NONNULL);
+        return StreamSupport.stream(spliterator, false).onClose(cursor::close);
+    }
 
 }
@@ -0,0 +1,106 @@
+package com.handler.datasources;
+
+import weaver.conn.RecordSet;
+
+/**
+ * 数据库方言
+ * E-cology9支持SQL Server、Oracle、MySQL，分页按各数据库的原生写法生成
+ * 达梦、神通按Oracle处理，PostgreSQL按MySQL处理(limit ... offset ...两者通用)
+ */
+enum Dialect {
+
+    MYSQL {
+        @Override
+        String page(String sql, String orderBy, long offset, long rows) {
+            return orderBy(sql, orderBy) + " limit " + rows + " offset " + offset;
+        }
+    },
+
+    SQLSERVER {
+        @Override
+        String page(String sql, String orderBy, long offset, long rows) {
+            // offset/fetch必须有order by，未指定排序时不改变原有顺序
+            return sql + " order by " + (null != orderBy ? orderBy : "(select null)")
+                    + " offset " + offset + " rows fetch next " + rows + " rows only";
+        }
+    },
+
+    ORACLE {
+        @Override
+        String page(String sql, String orderBy, long offset, long rows) {
+            String inner = orderBy(sql, orderBy);
+            if (offset <= 0) {
+                return "select * from (" + inner + ") where rownum <= " + rows;
+            }
+            return "select * from (select t_.*, rownum rn_ from (" + inner + ") t_ where rownum <= " + (offset + rows)
+                    + ") where rn_ > " + offset;
+        }
+    };
+
+    private static volatile Dialect current;
+
+    /**
+     * 当前数据库的方言(根据RecordSet的数据库类型识别)
+     *
+     * @return 方言
+     */
+    static Dialect current() {
+        Dialect dialect = current;
+        if (null == dialect) {
+            dialect = of(new RecordSet().getDBType());
+            current = dialect;
+        }
+        return dialect;
+    }
+
+    /**
+     * 根据数据库类型获取方言
+     *
+     * @param dbType 数据库类型(RecordSet.getDBType())
+     * @return 方言
+     */
+    static Dialect of(String dbType) {
+        String type = null == dbType ? "" : dbType.toLowerCase();
+        if (type.contains("sqlserver")) {
+            return SQLSERVER;
+        }
+        if (type.contains("oracle") || type.startsWith("dm") || type.startsWith("st")) {
+            return ORACLE;
+        }
+        return MYSQL;
+    }
+
+    /**
+     * 分页
+     *
+     * @param sql     查询sql(不含order by)
+     * @param orderBy 排序(可以为null)
+     * @param offset  跳过的行数
+     * @param rows    返回的行数
+     * @return 分页sql
+     */
+    abstract String page(String sql, String orderBy, long offset, long rows);
+
+    /**
+     * 只取前几行
+     *
+     * @param sql     查询sql(不含order by)
+     * @param orderBy 排序(可以为null)
+     * @param rows    返回的行数
+     * @return sql
+     */
+    String limit(String sql, String orderBy, long rows) {
+        return page(sql, orderBy, 0, rows);
+    }
+
+    /**
+     * @return in(...)中允许的最大参数个数(Oracle限制为1000)
+     */
+    int maxInSize() {
+        return 1000;
+    }
+
+    private static String orderBy(String sql, String orderBy) {
+        return null != orderBy ? sql + " order by " + orderBy : sql;
+    }
+}
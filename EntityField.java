@@ -0,0 +1,248 @@
+package com.handler.datasources;
+
+import com.annotation.ColumnName;
+import com.engine.core.exception.ECException;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.sql.SQLException;
+
+/**
+ * 实体字段元数据
+ * 字段名、列名、预先解析好的取值方法(或编译时生成的映射器)以及按字段类型选定的转换器，构建后不可变，可在多线程间共享
+ */
+final class EntityField {
+
+    private static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+
+    private static final MethodType SETTER_TYPE = MethodType.methodType(void.class, Object.class, Object.class);
+
+    private final Field field;
+
+    private final String fieldName;
+
+    private final String columnName;
+
+    /**
+     * 取值方法(使用映射器时为null)
+     */
+    private final MethodHandle getter;
+
+    /**
+     * 赋值方法(final字段且没有setXxx()或使用映射器时为null)
+     */
+    private final MethodHandle setter;
+
+    /**
+     * 编译时生成的映射器(没有时为null)
+     */
+    private final EntityMapper<Object> mapper;
+
+    /**
+     * 字段在映射器中的下标
+     */
+    private final int mapperIndex;
+
+    private final ColumnConverter<Object> converter;
+
+    EntityField(Field field) {
+        this.field = field;
+        this.fieldName = field.getName();
+        ColumnName annotation = field.getAnnotation(ColumnName.class);
+        this.columnName = null != annotation ? annotation.value() : field.getName();
+        this.getter = resolveGetter(field);
+        this.setter = resolveSetter(field);
+        this.mapper = null;
+        this.mapperIndex = -1;
+        this.converter = ColumnConverters.of(field.getType());
+    }
+
+    /**
+     * 使用映射器读写字段
+     *
+     * @param field       字段
+     * @param mapper      映射器
+     * @param mapperIndex 字段在映射器中的下标
+     */
+    EntityField(Field field, EntityMapper<Object> mapper, int mapperIndex) {
+        this.field = field;
+        this.fieldName = field.getName();
+        this.columnName = mapper.columnNames()[mapperIndex];
+        this.getter = null;
+        this.setter = null;
+        this.mapper = mapper;
+        this.mapperIndex = mapperIndex;
+        this.converter = ColumnConverters.of(field.getType());
+    }
+
+    Field getField() {
+        return field;
+    }
+
+    String getFieldName() {
+        return fieldName;
+    }
+
+    String getColumnName() {
+        return columnName;
+    }
+
+    Class<?> getType() {
+        return field.getType();
+    }
+
+    /**
+     * @return 字段在映射器中的下标(没有映射器时为-1)
+     */
+    int getMapperIndex() {
+        return mapperIndex;
+    }
+
+    /**
+     * 获取字段值
+     *
+     * @param target 实体对象
+     * @return 字段值
+     */
+    Object get(Object target) {
+        try {
+            if (null != mapper) {
+                return mapper.get(target, mapperIndex);
+            }
+            return (Object) getter.invokeExact(target);
+        } catch (Throwable e) {
+            throw new ECException("获取字段[" + field.getDeclaringClass().getName() + "." + fieldName + "]的值失败", e);
+        }
+    }
+
+    /**
+     * 读取当前行中该字段对应的列
+     *
+     * @param reader      当前行
+     * @param columnIndex 列序号(从1开始)
+     * @return 字段值
+     */
+    Object read(ColumnReader reader, int columnIndex) throws SQLException {
+        try {
+            return reader.read(columnIndex, converter);
+        } catch (RuntimeException e) {
+            throw new ECException("字段[" + field.getDeclaringClass().getName() + "." + fieldName + "]读取第" + columnIndex + "列失败", e);
+        }
+    }
+
+    /**
+     * 按字段类型解析字符串(与读取RecordSet的结果相同，使用字段的转换器)
+     *
+     * @param text 字符串
+     * @return 字段值(空值时为null)
+     */
+    Object parse(String text) {
+        try {
+            return converter.fromString(text);
+        } catch (RuntimeException e) {
+            throw new ECException("字段[" + field.getDeclaringClass().getName() + "." + fieldName + "]解析[" + text + "]失败", e);
+        }
+    }
+
+    /**
+     * 赋值
+     *
+     * @param target 实体对象
+     * @param value  字段值(基本类型字段为null时不赋值)
+     */
+    void set(Object target, Object value) {
+        if ((null == setter && null == mapper) || (null == value && field.getType().isPrimitive())) {
+            return;
+        }
+        try {
+            if (null != mapper) {
+                mapper.set(target, mapperIndex, value);
+                return;
+            }
+            setter.invokeExact(target, value);
+        } catch (Throwable e) {
+            throw new ECException("字段[" + field.getDeclaringClass().getName() + "." + fieldName + "]赋值失败，值为[" + value + "]", e);
+        }
+    }
+
+    /**
+     * 将字段值转换为sql参数
+     *
+     * @param value 字段值
+     * @return sql参数(value为null时为null)
+     */
+    Object toParameter(Object value) {
+        return null == value ? null : converter.toParameter(value);
+    }
+
+    /**
+     * 将字段值转换为字符串
+     *
+     * @param value 字段值
+     * @return 字符串(value为null时为null)
+     */
+    String format(Object value) {
+        return null == value ? null : converter.format(value);
+    }
+
+    /**
+     * 解析取值方法
+     * 优先使用public的getXxx()(boolean类型兼容isXxx())，找不到时直接读取字段
+     */
+    private static MethodHandle resolveGetter(Field field) {
+        Class<?> clazz = field.getDeclaringClass();
+        String suffix = field.getName().substring(0, 1).toUpperCase() + field.getName().substring(1);
+        Method method = findMethod(clazz, "get" + suffix);
+        if (null == method && (field.getType() == boolean.class || field.getType() == Boolean.class)) {
+            method = findMethod(clazz, "is" + suffix);
+        }
+        MethodHandles.Lookup lookup = MethodHandles.lookup();
+        try {
+            if (null != method) {
+                method.setAccessible(true);
+                return lookup.unreflect(method).asType(GETTER_TYPE);
+            }
+            field.setAccessible(true);
+            return lookup.unreflectGetter(field).asType(GETTER_TYPE);
+        } catch (IllegalAccessException | RuntimeException e) {
+            throw new ECException("解析字段[" + clazz.getName() + "." + field.getName() + "]的取值方法失败", e);
+        }
+    }
+
+    /**
+     * 解析赋值方法
+     * 优先使用public的setXxx()，找不到时直接写字段
+     */
+    private static MethodHandle resolveSetter(Field field) {
+        Class<?> clazz = field.getDeclaringClass();
+        String suffix = field.getName().substring(0, 1).toUpperCase() + field.getName().substring(1);
+        Method method = findMethod(clazz, "set" + suffix, field.getType());
+        MethodHandles.Lookup lookup = MethodHandles.lookup();
+        try {
+            if (null != method) {
+                method.setAccessible(true);
+                return lookup.unreflect(method).asType(SETTER_TYPE);
+            }
+            if (Modifier.isFinal(field.getModifiers())) {
+                return null;
+            }
+            field.setAccessible(true);
+            return lookup.unreflectSetter(field).asType(SETTER_TYPE);
+        } catch (IllegalAccessException | RuntimeException e) {
+            throw new ECException("解析字段[" + clazz.getName() + "." + field.getName() + "]的赋值方法失败", e);
+        }
+    }
+
+    private static Method findMethod(Class<?> clazz, String methodName, Class<?>... parameterTypes) {
+        try {
+            Method method = clazz.getMethod(methodName, parameterTypes);
+            return Modifier.isStatic(method.getModifiers()) ? null : method;
+        } catch (NoSuchMethodException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.handler.datasources;
+
+import weaver.conn.RecordSet;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * 实体映射器
+ * 由注解处理器(com.annotation.processor.EntityMapperProcessor)在编译时为添加了TableName/TableMapping注解的实体类生成，
+ * 类名为实体类名加$$Mapper。元数据构建时找到映射器就直接调用生成的代码创建对象、读取查询结果、生成sql参数，找不到时使用反射
+ *
+ * @param <T> 实体类型
+ */
+public interface EntityMapper<T> {
+
+    /**
+     * @return 实体类
+     */
+    Class<T> entityClass();
+
+    /**
+     * @return 本类及父类的所有非静态属性名(get/set的下标与该数组一致)
+     */
+    String[] fieldNames();
+
+    /**
+     * @return 与fieldNames()一一对应的列名(ColumnName注解的值，没有注解时为属性名)
+     */
+    String[] columnNames();
+
+    /**
+     * @return 新建的实体对象
+     */
+    T newInstance();
+
+    /**
+     * 获取属性值
+     *
+     * @param entity 实体对象
+     * @param index  属性下标
+     * @return 属性值
+     */
+    Object get(T entity, int index);
+
+    /**
+     * 设置属性值(final属性且没有setXxx()时不赋值)
+     *
+     * @param entity 实体对象
+     * @param index  属性下标
+     * @param value  属性值(类型与属性一致，基本类型属性不为null)
+     */
+    void set(T entity, int index, Object value);
+
+    /**
+     * 将RecordSet的当前行读入新建的实体对象
+     *
+     * @param recordSet     结果集(已移动到当前行)
+     * @param columnIndexes 各属性(按fieldNames()的下标)在结果集中的列序号(从1开始，0表示结果集中没有该列)
+     * @param skipEmpty     是否跳过空值
+     * @return 实体对象
+     */
+    T readRow(RecordSet recordSet, int[] columnIndexes, boolean skipEmpty);
+
+    /**
+     * 将JDBC结果集的当前行读入新建的实体对象
+     *
+     * @param resultSet     结果集(已移动到当前行)
+     * @param columnIndexes 各属性(按fieldNames()的下标)在结果集中的列序号(从1开始，0表示结果集中没有该列)
+     * @param skipEmpty     是否跳过空值
+     * @return 实体对象
+     * @throws SQLException 读取失败
+     */
+    T readRow(ResultSet resultSet, int[] columnIndexes, boolean skipEmpty) throws SQLException;
+
+    /**
+     * 将所有属性值转换为sql参数
+     *
+     * @param entity     实体对象
+     * @param parameters sql参数(输出，按fieldNames()的下标，属性值为null时为null)
+     */
+    void bind(T entity, Object[] parameters);
+}
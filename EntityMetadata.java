@@ -0,0 +1,404 @@
+package com.handler.datasources;
+
+import com.annotation.ChangeTracking;
+import com.annotation.EntityCache;
+import com.annotation.TableMapping;
+import com.annotation.TableName;
+import com.engine.core.exception.ECException;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * 实体类元数据
+ * 每个实体类只在第一次使用时解析一次，之后从缓存中获取
+ * 有编译时生成的映射器(实体类名$$Mapper)时通过映射器创建对象、读写字段，否则使用反射
+ */
+final class EntityMetadata {
+
+    private static final Map<Class<?>, EntityMetadata> CACHE = new ConcurrentHashMap<>();
+
+    /**
+     * 每个实体类最多缓存的列名组合数(自定义sql的列名组合过多时不再缓存)
+     */
+    private static final int MAX_ROW_MAPPERS = 64;
+
+    /**
+     * 每个实体类最多缓存的sql数
+     */
+    private static final int MAX_SQL_TEMPLATES = 256;
+
+    private final Class<?> entityClass;
+
+    /**
+     * TableName注解的值(没有该注解时为null)
+     */
+    private final String tableName;
+
+    /**
+     * TableMapping注解的值(没有该注解时为null)
+     */
+    private final String mappingName;
+
+    /**
+     * EntityCache注解(没有该注解时为null)
+     */
+    private final EntityCache entityCache;
+
+    /**
+     * ChangeTracking注解(没有该注解时为null)
+     */
+    private final ChangeTracking changeTracking;
+
+    /**
+     * 本类及父类的所有字段(按声明顺序，本类在前)
+     */
+    private final List<EntityField> fields;
+
+    /**
+     * 列名(小写) -> 字段
+     */
+    private final Map<String, EntityField> columnMap;
+
+    /**
+     * 属性名 -> 字段
+     */
+    private final Map<String, EntityField> fieldMap;
+
+    private final String columnString;
+
+    /**
+     * 无参构造方法(实体类没有无参构造或使用映射器时为null)
+     */
+    private final MethodHandle constructor;
+
+    /**
+     * 编译时生成的映射器(没有时为null)
+     */
+    private final EntityMapper<Object> mapper;
+
+    /**
+     * 映射器的属性顺序与getFields()一致(bind的结果不需要重新排序)
+     */
+    private final boolean mapperOrdered;
+
+    /**
+     * 列名组合 -> 列与字段的绑定关系
+     */
+    private final Map<List<String>, RowMapper> rowMappers = new ConcurrentHashMap<>();
+
+    /**
+     * (操作, 表名, 非空字段) -> sql
+     */
+    private final Map<SqlKey, String> sqlTemplates = new ConcurrentHashMap<>();
+
+    private EntityMetadata(Class<?> clazz) {
+        this.entityClass = clazz;
+        TableName tableNameAnnotation = clazz.getAnnotation(TableName.class);
+        this.tableName = null != tableNameAnnotation ? tableNameAnnotation.value() : null;
+        TableMapping tableMapping = clazz.getAnnotation(TableMapping.class);
+        this.mappingName = null != tableMapping ? tableMapping.value() : null;
+        this.entityCache = clazz.getAnnotation(EntityCache.class);
+        this.changeTracking = clazz.getAnnotation(ChangeTracking.class);
+        List<Field> declaredFields = new ArrayList<>();
+        for (Class<?> current = clazz; current != null && current != Object.class; current = current.getSuperclass()) {
+            for (Field field : current.getDeclaredFields()) {
+                if (!Modifier.isStatic(field.getModifiers()) && !field.isSynthetic()) {
+                    declaredFields.add(field);
+                }
+            }
+        }
+        EntityMapper<Object> entityMapper = resolveMapper(clazz);
+        Map<String, Integer> mapperIndexes = null != entityMapper ? mapperIndexes(entityMapper, declaredFields) : null;
+        if (null == mapperIndexes) {
+            entityMapper = null;
+        }
+        List<EntityField> fieldList = new ArrayList<>();
+        Map<String, EntityField> map = new LinkedHashMap<>();
+        Map<String, EntityField> nameMap = new HashMap<>();
+        List<String> columnNames = new ArrayList<>();
+        for (Field field : declaredFields) {
+            EntityField entityField = null != entityMapper
+                    ? new EntityField(field, entityMapper, mapperIndexes.get(field.getName()))
+                    : new EntityField(field);
+            fieldList.add(entityField);
+            columnNames.add(entityField.getColumnName());
+            map.putIfAbsent(entityField.getColumnName().toLowerCase(), entityField);
+            nameMap.putIfAbsent(entityField.getFieldName(), entityField);
+        }
+        this.fields = Collections.unmodifiableList(fieldList);
+        this.columnMap = Collections.unmodifiableMap(map);
+        this.fieldMap = Collections.unmodifiableMap(nameMap);
+        this.columnString = String.join(",", columnNames);
+        this.mapper = entityMapper;
+        boolean ordered = true;
+        for (int i = 0; i < fieldList.size(); i++) {
+            ordered &= fieldList.get(i).getMapperIndex() == i;
+        }
+        this.mapperOrdered = ordered;
+        this.constructor = null != entityMapper ? null : resolveConstructor(clazz);
+    }
+
+    /**
+     * 获取实体类元数据
+     *
+     * @param clazz 实体类
+     * @return 元数据
+     */
+    static EntityMetadata of(Class<?> clazz) {
+        EntityMetadata metadata = CACHE.get(clazz);
+        if (null == metadata) {
+            metadata = CACHE.computeIfAbsent(clazz, EntityMetadata::new);
+        }
+        return metadata;
+    }
+
+    Class<?> getEntityClass() {
+        return entityClass;
+    }
+
+    String getTableName() {
+        return tableName;
+    }
+
+    String getMappingName() {
+        return mappingName;
+    }
+
+    EntityCache getEntityCache() {
+        return entityCache;
+    }
+
+    ChangeTracking getChangeTracking() {
+        return changeTracking;
+    }
+
+    List<EntityField> getFields() {
+        return fields;
+    }
+
+    /**
+     * 根据列名获取字段(不区分大小写)
+     *
+     * @param columnName 列名
+     * @return 字段(不存在时为null)
+     */
+    EntityField getFieldByColumn(String columnName) {
+        return columnMap.get(columnName.toLowerCase());
+    }
+
+    /**
+     * 根据属性名获取字段
+     *
+     * @param fieldName 属性名
+     * @return 字段(不存在时为null)
+     */
+    EntityField getFieldByName(String fieldName) {
+        return fieldMap.get(fieldName);
+    }
+
+    /**
+     * @return 编译时生成的映射器(没有时为null)
+     */
+    EntityMapper<Object> getMapper() {
+        return mapper;
+    }
+
+    /**
+     * 将所有字段值转换为sql参数
+     * 有映射器时由生成的代码直接读取并转换，否则逐个字段读取后转换
+     *
+     * @param entity 实体对象
+     * @return sql参数(按getFields()的下标，字段值为null时为null)
+     */
+    Object[] parameters(Object entity) {
+        Object[] parameters = new Object[fields.size()];
+        if (null != mapper) {
+            mapper.bind(entity, parameters);
+            if (mapperOrdered) {
+                return parameters;
+            }
+            Object[] ordered = new Object[parameters.length];
+            for (int i = 0; i < ordered.length; i++) {
+                ordered[i] = parameters[fields.get(i).getMapperIndex()];
+            }
+            return ordered;
+        }
+        for (int i = 0; i < parameters.length; i++) {
+            EntityField field = fields.get(i);
+            parameters[i] = field.toParameter(field.get(entity));
+        }
+        return parameters;
+    }
+
+    /**
+     * @return 以逗号分隔的列名(insert语句及查询语句使用)
+     */
+    String getColumnString() {
+        return columnString;
+    }
+
+    /**
+     * 获取结果集列与字段的绑定关系
+     *
+     * @param columnNames 结果集列名(查询失败时RecordSet返回null，按没有列处理)
+     * @return 绑定关系
+     */
+    RowMapper getRowMapper(String[] columnNames) {
+        if (null == columnNames) {
+            columnNames = new String[0];
+        }
+        List<String> key = Arrays.asList(columnNames);
+        RowMapper rowMapper = rowMappers.get(key);
+        if (null == rowMapper) {
+            rowMapper = new RowMapper(this, columnNames);
+            if (rowMappers.size() < MAX_ROW_MAPPERS) {
+                rowMappers.putIfAbsent(Arrays.asList(columnNames.clone()), rowMapper);
+            }
+        }
+        return rowMapper;
+    }
+
+    /**
+     * 获取sql(同一操作、同一表名、同一组非空字段只生成一次)
+     *
+     * @param operation 操作
+     * @param tableName 表名
+     * @param mask      非空字段(按getFields()的下标)
+     * @param builder   生成sql
+     * @return sql
+     */
+    String getSql(String operation, String tableName, BitSet mask, Supplier<String> builder) {
+        SqlKey key = new SqlKey(operation, tableName, mask);
+        String sql = sqlTemplates.get(key);
+        if (null == sql) {
+            sql = builder.get();
+            if (sqlTemplates.size() < MAX_SQL_TEMPLATES) {
+                sqlTemplates.putIfAbsent(key, sql);
+            }
+        }
+        return sql;
+    }
+
+    /**
+     * 复制实体对象(浅拷贝：逐个字段赋值，字段引用的对象不复制)
+     *
+     * @param entity 实体对象
+     * @return 新的实体对象
+     */
+    Object copy(Object entity) {
+        Object copy = this.newInstance();
+        for (EntityField field : fields) {
+            field.set(copy, field.get(entity));
+        }
+        return copy;
+    }
+
+    /**
+     * 创建实体对象
+     *
+     * @return 实体对象
+     */
+    Object newInstance() {
+        if (null != mapper) {
+            return mapper.newInstance();
+        }
+        if (null == constructor) {
+            throw new ECException("CLASS【" + entityClass.getTypeName() + "】中没有无参构造方法");
+        }
+        try {
+            return (Object) constructor.invokeExact();
+        } catch (Throwable e) {
+            throw new ECException("CLASS【" + entityClass.getTypeName() + "】实例化失败", e);
+        }
+    }
+
+    /**
+     * 查找编译时生成的映射器(与实体类同一个包，类名为实体类名$$Mapper)
+     *
+     * @return 映射器(没有时为null)
+     */
+    @SuppressWarnings("unchecked")
+    private static EntityMapper<Object> resolveMapper(Class<?> clazz) {
+        try {
+            Class<?> mapperClass = Class.forName(clazz.getName() + "$$Mapper", true, clazz.getClassLoader());
+            if (!EntityMapper.class.isAssignableFrom(mapperClass)) {
+                return null;
+            }
+            EntityMapper<Object> entityMapper = (EntityMapper<Object>) mapperClass.getDeclaredConstructor().newInstance();
+            return entityMapper.entityClass() == clazz ? entityMapper : null;
+        } catch (ReflectiveOperationException | RuntimeException | LinkageError e) {
+            return null;
+        }
+    }
+
+    /**
+     * 属性名 -> 映射器中的下标
+     * 映射器与当前的实体类不一致(如实体类修改后未重新生成)时为null
+     */
+    private static Map<String, Integer> mapperIndexes(EntityMapper<Object> entityMapper, List<Field> declaredFields) {
+        String[] fieldNames = entityMapper.fieldNames();
+        if (fieldNames.length != declaredFields.size() || entityMapper.columnNames().length != fieldNames.length) {
+            return null;
+        }
+        Map<String, Integer> indexes = new HashMap<>();
+        for (int i = 0; i < fieldNames.length; i++) {
+            indexes.put(fieldNames[i], i);
+        }
+        for (Field field : declaredFields) {
+            if (!indexes.containsKey(field.getName())) {
+                return null;
+            }
+        }
+        return indexes.size() == declaredFields.size() ? indexes : null;
+    }
+
+    private static MethodHandle resolveConstructor(Class<?> clazz) {
+        try {
+            Constructor<?> declared = clazz.getDeclaredConstructor();
+            declared.setAccessible(true);
+            return MethodHandles.lookup().unreflectConstructor(declared).asType(MethodType.methodType(Object.class));
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    private static final class SqlKey {
+
+        private final String operation;
+
+        private final String tableName;
+
+        private final BitSet mask;
+
+        private SqlKey(String operation, String tableName, BitSet mask) {
+            this.operation = operation;
+            this.tableName = tableName;
+            this.mask = mask;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof SqlKey)) {
+                return false;
+            }
+            SqlKey other = (SqlKey) o;
+            return operation.equals(other.operation) && tableName.equals(other.tableName) && mask.equals(other.mask);
+        }
+
+        @Override
+        public int hashCode() {
+            return (operation.hashCode() * 31 + tableName.hashCode()) * 31 + mask.hashCode();
+        }
+    }
+}
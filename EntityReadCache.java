@@ -0,0 +1,138 @@
+package com.handler.datasources;
+
+import com.annotation.EntityCache;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 实体缓存(添加了EntityCache注解的实体)
+ * 每个实体类一个缓存区，按表名登记，对该表的写操作清空该表的所有缓存区
+ * 查询前记录表的版本号，查询期间该表有写操作时不缓存查询结果(避免缓存写操作之前读到的旧数据)
+ * 缓存中保存查询结果的副本，每次命中时返回新的副本(浅拷贝)，调用方修改返回的实体不影响缓存
+ */
+public final class EntityReadCache {
+
+    private static final Map<Class<?>, LruCache<Object, Object>> REGIONS = new ConcurrentHashMap<>();
+
+    /**
+     * 表名(小写) -> 该表的缓存区
+     */
+    private static final Map<String, Set<LruCache<Object, Object>>> TABLES = new ConcurrentHashMap<>();
+
+    /**
+     * 表名(小写) -> 版本号(每次写操作加1)
+     */
+    private static final Map<String, AtomicLong> VERSIONS = new ConcurrentHashMap<>();
+
+    private EntityReadCache() {
+    }
+
+    /**
+     * 获取实体类的缓存区
+     *
+     * @param clazz     实体类
+     * @param tableName 表名
+     * @return 缓存区(实体类没有开启缓存时为null)
+     */
+    static LruCache<Object, Object> region(Class<?> clazz, String tableName) {
+        EntityCache annotation = EntityMetadata.of(clazz).getEntityCache();
+        if (null == annotation) {
+            return null;
+        }
+        LruCache<Object, Object> region = REGIONS.get(clazz);
+        if (null == region) {
+            region = REGIONS.computeIfAbsent(clazz,
+                    key -> new LruCache<>(annotation.maxSize(), TimeUnit.SECONDS.toMillis(annotation.ttlSeconds())));
+        }
+        String table = tableName.toLowerCase();
+        Set<LruCache<Object, Object>> regions = TABLES.get(table);
+        if (null == regions) {
+            regions = TABLES.computeIfAbsent(table, key -> ConcurrentHashMap.newKeySet());
+        }
+        regions.add(region);
+        return region;
+    }
+
+    /**
+     * 获取表当前的版本号(查询前调用)
+     *
+     * @param tableName 表名
+     * @return 版本号
+     */
+    static long version(String tableName) {
+        return counter(tableName.toLowerCase()).get();
+    }
+
+    /**
+     * 缓存查询结果
+     * 先放入缓存再检查版本号：写操作先增加版本号再清空缓存，
+     * 因此查询期间或放入缓存的同时有写操作时，要么该结果被写操作清除，要么在这里检查到版本号变化后移除
+     *
+     * @param region    缓存区
+     * @param tableName 表名
+     * @param version   查询前的版本号
+     * @param key       缓存key
+     * @param value     查询结果
+     */
+    static void put(LruCache<Object, Object> region, String tableName, long version, Object key, Object value) {
+        AtomicLong counter = counter(tableName.toLowerCase());
+        if (counter.get() != version) {
+            return;
+        }
+        region.put(key, value);
+        if (counter.get() != version) {
+            region.remove(key);
+        }
+    }
+
+    /**
+     * 清空表的缓存
+     *
+     * @param tableName 表名
+     */
+    public static void invalidate(String tableName) {
+        String table = tableName.toLowerCase();
+        AtomicLong counter = VERSIONS.get(table);
+        if (null != counter) {
+            counter.incrementAndGet();
+        }
+        Set<LruCache<Object, Object>> regions = TABLES.get(table);
+        if (null != regions) {
+            for (LruCache<Object, Object> region : regions) {
+                region.clear();
+            }
+        }
+    }
+
+    /**
+     * 清空所有缓存
+     */
+    public static void invalidateAll() {
+        for (LruCache<Object, Object> region : REGIONS.values()) {
+            region.clear();
+        }
+    }
+
+    private static AtomicLong counter(String table) {
+        AtomicLong counter = VERSIONS.get(table);
+        if (null == counter) {
+            counter = VERSIONS.computeIfAbsent(table, key -> new AtomicLong());
+        }
+        return counter;
+    }
+
+    /**
+     * 获取实体类的缓存统计
+     *
+     * @param clazz 实体类
+     * @return 缓存统计(实体类没有开启缓存或还未使用时为null)
+     */
+    public static CacheStats getStats(Class<?> clazz) {
+        LruCache<Object, Object> region = REGIONS.get(clazz);
+        return null != region ? region.stats() : null;
+    }
+}
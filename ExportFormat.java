@@ -0,0 +1,176 @@
+package com.handler.datasources;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * 导出格式
+ */
+public enum ExportFormat {
+
+    /**
+     * CSV(RFC 4180)：第一行为列名，值中包含逗号、引号或换行时加引号，null导出为空
+     */
+    CSV {
+        @Override
+        void writeHeader(Writer writer, String[] columnNames) throws IOException {
+            writeRow(writer, columnNames, columnNames, null);
+        }
+
+        @Override
+        void writeRow(Writer writer, String[] columnNames, String[] values, boolean[] numeric) throws IOException {
+            for (int i = 0; i < values.length; i++) {
+                if (i > 0) {
+                    writer.write(',');
+                }
+                String value = values[i];
+                if (null != value) {
+                    writeCsv(writer, value);
+                }
+            }
+            writer.write("\r\n");
+        }
+    },
+
+    /**
+     * JSON Lines：每行一个JSON对象，数字列输出为数字，null输出为null
+     */
+    JSON_LINES {
+        @Override
+        void writeHeader(Writer writer, String[] columnNames) {
+            // 没有表头
+        }
+
+        @Override
+        void writeRow(Writer writer, String[] columnNames, String[] values, boolean[] numeric) throws IOException {
+            writer.write('{');
+            for (int i = 0; i < values.length; i++) {
+                if (i > 0) {
+                    writer.write(',');
+                }
+                writeJsonString(writer, columnNames[i]);
+                writer.write(':');
+                String value = values[i];
+                if (null == value) {
+                    writer.write("null");
+                } else if (numeric[i] && isJsonNumber(value)) {
+                    writer.write(value);
+                } else {
+                    writeJsonString(writer, value);
+                }
+            }
+            writer.write("}\n");
+        }
+    };
+
+    /**
+     * 写入表头
+     *
+     * @param writer      输出
+     * @param columnNames 列名
+     */
+    abstract void writeHeader(Writer writer, String[] columnNames) throws IOException;
+
+    /**
+     * 写入一行
+     *
+     * @param writer      输出
+     * @param columnNames 列名
+     * @param values      值
+     * @param numeric     各列是否为数字类型
+     */
+    abstract void writeRow(Writer writer, String[] columnNames, String[] values, boolean[] numeric) throws IOException;
+
+    private static void writeCsv(Writer writer, String value) throws IOException {
+        boolean quote = false;
+        for (int i = 0; i < value.length() && !quote; i++) {
+            char c = value.charAt(i);
+            quote = c == ',' || c == '"' || c == '\r' || c == '\n';
+        }
+        if (!quote) {
+            writer.write(value);
+            return;
+        }
+        writer.write('"');
+        int start = 0;
+        for (int i = 0; i < value.length(); i++) {
+            if (value.charAt(i) == '"') {
+                writer.write(value, start, i + 1 - start);
+                writer.write('"');
+                start = i + 1;
+            }
+        }
+        writer.write(value, start, value.length() - start);
+        writer.write('"');
+    }
+
+    private static void writeJsonString(Writer writer, String value) throws IOException {
+        writer.write('"');
+        int start = 0;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            String escaped;
+            if (c == '"') {
+                escaped = "\\\"";
+            } else if (c == '\\') {
+                escaped = "\\\\";
+            } else if (c == '\n') {
+                escaped = "\\n";
+            } else if (c == '\r') {
+                escaped = "\\r";
+            } else if (c == '\t') {
+                escaped = "\\t";
+            } else if (c < 0x20 || c == '\u2028' || c == '\u2029') {
+                escaped = String.format("\\u%04x", (int) c);
+            } else {
+                continue;
+            }
+            writer.write(value, start, i - start);
+            writer.write(escaped);
+            start = i + 1;
+        }
+        writer.write(value, start, value.length() - start);
+        writer.write('"');
+    }
+
+    /**
+     * 是否符合JSON数字格式(如Oracle返回的.5不符合，按字符串输出)
+     */
+    private static boolean isJsonNumber(String value) {
+        int length = value.length();
+        int i = 0;
+        if (i < length && value.charAt(i) == '-') {
+            i++;
+        }
+        int digits = i;
+        while (i < length && value.charAt(i) >= '0' && value.charAt(i) <= '9') {
+            i++;
+        }
+        if (i == digits || (value.charAt(digits) == '0' && i - digits > 1)) {
+            return false;
+        }
+        if (i < length && value.charAt(i) == '.') {
+            int fraction = ++i;
+            while (i < length && value.charAt(i) >= '0' && value.charAt(i) <= '9') {
+                i++;
+            }
+            if (i == fraction) {
+                return false;
+            }
+        }
+        if (i < length && (value.charAt(i) == 'e' || value.charAt(i) == 'E')) {
+            i++;
+            if (i < length && (value.charAt(i) == '+' || value.charAt(i) == '-')) {
+                i++;
+            }
+            int exponent = i;
+            while (i < length && value.charAt(i) >= '0' && value.charAt(i) <= '9') {
+                i++;
+            }
+            if (i == exponent) {
+                return false;
+            }
+        }
+        return i == length;
+    }
+}
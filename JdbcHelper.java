@@ -0,0 +1,204 @@
+package com.handler.datasources;
+
+import weaver.conn.ConnectionPool;
+import weaver.conn.WeaverConnection;
+
+import java.sql.*;
+import java.util.Collection;
+
+/**
+ * 直接使用JDBC连接的工具方法
+ * RecordSet会把整个结果集读入内存，流式读取、批量执行等场景需要直接使用连接池中的连接
+ */
+final class JdbcHelper {
+
+    private JdbcHelper() {
+    }
+
+    /**
+     * 从泛微连接池获取连接
+     *
+     * @return 连接(使用后调用close归还)
+     */
+    static Connection getConnection() {
+        return ConnectionPool.getInstance().getConnection();
+    }
+
+    /**
+     * 绑定参数
+     * 与RecordSet一致，参数为集合时展开为多个参数；Date转换为Timestamp
+     *
+     * @param statement 预编译语句
+     * @param params    参数
+     */
+    static void bind(PreparedStatement statement, Object... params) throws SQLException {
+        if (null == params) {
+            return;
+        }
+        int index = 1;
+        for (Object param : params) {
+            if (param instanceof Collection) {
+                for (Object item : (Collection<?>) param) {
+                    setParameter(statement, index++, item);
+                }
+            } else {
+                setParameter(statement, index++, param);
+            }
+        }
+    }
+
+    /**
+     * 设置单个参数
+     *
+     * @param statement 预编译语句
+     * @param index     参数序号(从1开始)
+     * @param value     参数值
+     * @param type      参数的java类型(值为null时用于确定sql类型)
+     */
+    static void setParameter(PreparedStatement statement, int index, Object value, Class<?> type) throws SQLException {
+        if (null == value) {
+            statement.setNull(index, sqlType(type));
+        } else {
+            setParameter(statement, index, value);
+        }
+    }
+
+    private static void setParameter(PreparedStatement statement, int index, Object value) throws SQLException {
+        if (null == value) {
+            statement.setNull(index, Types.VARCHAR);
+        } else if (value instanceof java.util.Date && !(value instanceof java.sql.Date) && !(value instanceof Time)
+                && !(value instanceof Timestamp)) {
+            statement.setTimestamp(index, new Timestamp(((java.util.Date) value).getTime()));
+        } else {
+            statement.setObject(index, value);
+        }
+    }
+
+    private static int sqlType(Class<?> type) {
+        if (type == Integer.class || type == int.class || type == Short.class || type == short.class
+                || type == Byte.class || type == byte.class) {
+            return Types.INTEGER;
+        }
+        if (type == Long.class || type == long.class) {
+            return Types.BIGINT;
+        }
+        if (Number.class.isAssignableFrom(type) || type == double.class || type == float.class) {
+            return Types.NUMERIC;
+        }
+        if (java.util.Date.class.isAssignableFrom(type)) {
+            return Types.TIMESTAMP;
+        }
+        return Types.VARCHAR;
+    }
+
+    /**
+     * 获取结果集列名
+     *
+     * @param resultSet 结果集
+     * @return 列名
+     */
+    static String[] getColumnNames(ResultSet resultSet) throws SQLException {
+        ResultSetMetaData metaData = resultSet.getMetaData();
+        String[] columnNames = new String[metaData.getColumnCount()];
+        for (int i = 0; i < columnNames.length; i++) {
+            columnNames[i] = metaData.getColumnLabel(i + 1);
+        }
+        return columnNames;
+    }
+
+    /**
+     * 在同一个事务中使用连接
+     * 正常返回时提交，抛出异常时回滚，结束后恢复自动提交设置并归还连接
+     *
+     * @param callback 使用连接的逻辑
+     * @return callback的返回值
+     */
+    static <R> R inTransaction(ConnectionCallback<R> callback) throws SQLException {
+        Connection connection = getConnection();
+        boolean autoCommit = true;
+        try {
+            autoCommit = connection.getAutoCommit();
+            connection.setAutoCommit(false);
+            R result = callback.doInConnection(connection);
+            connection.commit();
+            return result;
+        } catch (SQLException | RuntimeException e) {
+            rollback(connection);
+            throw e;
+        } finally {
+            restoreAutoCommit(connection, autoCommit);
+            close(null, null, connection);
+        }
+    }
+
+    /**
+     * 使用连接的逻辑
+     */
+    @FunctionalInterface
+    interface ConnectionCallback<R> {
+
+        R doInConnection(Connection connection) throws SQLException;
+    }
+
+    /**
+     * 回滚事务(忽略回滚时的异常)
+     *
+     * @param connection 连接
+     */
+    static void rollback(Connection connection) {
+        if (null != connection) {
+            try {
+                connection.rollback();
+            } catch (SQLException ignored) {
+                // 回滚失败时由数据库在连接关闭时处理
+            }
+        }
+    }
+
+    /**
+     * 恢复连接的自动提交设置(连接归还连接池前调用)
+     *
+     * @param connection 连接
+     * @param autoCommit 原来的自动提交设置
+     */
+    static void restoreAutoCommit(Connection connection, boolean autoCommit) {
+        if (null != connection) {
+            try {
+                connection.setAutoCommit(autoCommit);
+            } catch (SQLException ignored) {
+                // 恢复失败不影响结果
+            }
+        }
+    }
+
+    /**
+     * 关闭结果集、语句并归还连接(忽略关闭时的异常)
+     */
+    static void close(ResultSet resultSet, Statement statement, Connection connection) {
+        if (null != resultSet) {
+            try {
+                resultSet.close();
+            } catch (SQLException ignored) {
+                // 关闭失败不影响结果
+            }
+        }
+        if (null != statement) {
+            try {
+                statement.close();
+            } catch (SQLException ignored) {
+                // 关闭失败不影响结果
+            }
+        }
+        if (null != connection) {
+            if (connection instanceof WeaverConnection) {
+                ConnectionPool.getInstance().returnConnection((WeaverConnection) connection);
+            } else {
+                try {
+                    connection.close();
+                } catch (SQLException ignored) {
+                    // 关闭失败不影响结果
+                }
+            }
+        }
+    }
+}
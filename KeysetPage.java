@@ -0,0 +1,41 @@
+package com.handler.datasources;
+
+import java.util.List;
+
+/**
+ * 游标分页结果
+ *
+ * @param <T> 数据类型
+ */
+public class KeysetPage<T> {
+
+    private final List<T> records;
+
+    private final String nextCursor;
+
+    KeysetPage(List<T> records, String nextCursor) {
+        this.records = records;
+        this.nextCursor = nextCursor;
+    }
+
+    /**
+     * @return 本页数据
+     */
+    public List<T> getRecords() {
+        return records;
+    }
+
+    /**
+     * @return 下一页的游标(传给下一次查询；没有下一页时为null)
+     */
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    /**
+     * @return 是否还有下一页
+     */
+    public boolean hasNext() {
+        return null != nextCursor;
+    }
+}
@@ -0,0 +1,132 @@
+package com.handler.datasources;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.ToLongFunction;
+
+/**
+ * 带过期时间的LRU缓存
+ * 超过最大条数(或指定了权重时超过最大权重)时淘汰最久未使用的数据，超过有效期的数据在读取时清除
+ */
+final class LruCache<K, V> {
+
+    private final int maxSize;
+
+    private final long ttlMillis;
+
+    /**
+     * 最大权重(小于等于0时不限制)
+     */
+    private final long maxWeight;
+
+    /**
+     * 计算数据的权重(如估算占用的内存)
+     */
+    private final ToLongFunction<? super V> weigher;
+
+    private final LinkedHashMap<K, Entry<V>> map;
+
+    /**
+     * 当前总权重(在map的锁内修改)
+     */
+    private long totalWeight;
+
+    private final AtomicLong hitCount = new AtomicLong();
+
+    private final AtomicLong missCount = new AtomicLong();
+
+    private final AtomicLong evictionCount = new AtomicLong();
+
+    LruCache(int maxSize, long ttlMillis) {
+        this(maxSize, ttlMillis, 0, value -> 0);
+    }
+
+    LruCache(int maxSize, long ttlMillis, long maxWeight, ToLongFunction<? super V> weigher) {
+        this.maxSize = maxSize;
+        this.ttlMillis = ttlMillis;
+        this.maxWeight = maxWeight;
+        this.weigher = weigher;
+        this.map = new LinkedHashMap<>(16, 0.75f, true);
+    }
+
+    V get(K key) {
+        long now = System.currentTimeMillis();
+        synchronized (map) {
+            Entry<V> entry = map.get(key);
+            if (null != entry && entry.expireAt > now) {
+                hitCount.incrementAndGet();
+                return entry.value;
+            }
+            if (null != entry) {
+                map.remove(key);
+                totalWeight -= entry.weight;
+                evictionCount.incrementAndGet();
+            }
+        }
+        missCount.incrementAndGet();
+        return null;
+    }
+
+    void put(K key, V value) {
+        if (maxSize <= 0) {
+            return;
+        }
+        Entry<V> entry = new Entry<>(value, System.currentTimeMillis() + ttlMillis, weigher.applyAsLong(value));
+        synchronized (map) {
+            Entry<V> old = map.put(key, entry);
+            if (null != old) {
+                totalWeight -= old.weight;
+            }
+            totalWeight += entry.weight;
+            Iterator<Map.Entry<K, Entry<V>>> iterator = map.entrySet().iterator();
+            while ((map.size() > maxSize || (maxWeight > 0 && totalWeight > maxWeight)) && iterator.hasNext()) {
+                totalWeight -= iterator.next().getValue().weight;
+                iterator.remove();
+                evictionCount.incrementAndGet();
+            }
+        }
+    }
+
+    void remove(K key) {
+        synchronized (map) {
+            Entry<V> entry = map.remove(key);
+            if (null != entry) {
+                totalWeight -= entry.weight;
+            }
+        }
+    }
+
+    void clear() {
+        synchronized (map) {
+            map.clear();
+            totalWeight = 0;
+        }
+    }
+
+    CacheStats stats() {
+        int size;
+        long weight;
+        synchronized (map) {
+            size = map.size();
+            weight = totalWeight;
+        }
+        return new CacheStats(hitCount.get(), missCount.get(), evictionCount.get(), size, weight);
+    }
+
+    private static final class Entry<V> {
+
+        private final V value;
+
+        private final long expireAt;
+
+        private final long weight;
+
+        private Entry(V value, long expireAt, long weight) {
+            this.value = value;
+            this.expireAt = expireAt;
+            this.weight = weight;
+        }
+    }
+}
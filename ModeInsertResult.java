@@ -0,0 +1,69 @@
+package com.handler.datasources;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * 批量保存建模数据的结果
+ * 按传入数据的下标记录每条数据保存后的数据ID及失败原因
+ */
+public class ModeInsertResult {
+
+    private final Integer[] billIds;
+
+    private final Map<Integer, String> errors = new TreeMap<>();
+
+    ModeInsertResult(int size) {
+        this.billIds = new Integer[size];
+    }
+
+    void setBillId(int index, Integer billId) {
+        billIds[index] = billId;
+    }
+
+    synchronized void addError(int index, String message) {
+        errors.put(index, message);
+    }
+
+    /**
+     * @return 每条数据保存后的数据ID(保存失败时为null)
+     */
+    public List<Integer> getBillIds() {
+        return Collections.unmodifiableList(Arrays.asList(billIds));
+    }
+
+    /**
+     * @return 失败的数据下标 -> 失败原因(保存成功但建权失败的数据同样包含在内)
+     */
+    public synchronized Map<Integer, String> getErrors() {
+        return Collections.unmodifiableMap(new TreeMap<>(errors));
+    }
+
+    /**
+     * @return 是否有失败的数据
+     */
+    public synchronized boolean hasErrors() {
+        return !errors.isEmpty();
+    }
+
+    /**
+     * @return 保存成功的数据条数
+     */
+    public int getSuccessCount() {
+        int count = 0;
+        for (Integer billId : billIds) {
+            if (null != billId) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    @Override
+    public String toString() {
+        return "ModeInsertResult{size=" + billIds.length + ", successCount=" + getSuccessCount() + ", errors=" + getErrors() + "}";
+    }
+}
@@ -0,0 +1,124 @@
+package com.handler.datasources;
+
+import com.engine.core.exception.ECException;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * 逐行读取的查询游标
+ * 每次只在内存中保留当前行，读取完毕或调用close()后归还连接
+ */
+final class QueryCursor<T> implements Iterator<T>, AutoCloseable {
+
+    private final Class<T> clazz;
+
+    private Connection connection;
+
+    private PreparedStatement statement;
+
+    private ResultSet resultSet;
+
+    private final ColumnReader reader;
+
+    private final RowMapper rowMapper;
+
+    private final QueryTimer timer;
+
+    /**
+     * 已读取的行数
+     */
+    private int rows;
+
+    /**
+     * 是否已执行成功(执行成功后关闭时记录统计)
+     */
+    private boolean opened;
+
+    /**
+     * 是否已经移动到下一行(hasNext()已调用但next()未调用)
+     */
+    private boolean fetched;
+
+    private boolean hasRow;
+
+    private boolean closed;
+
+    QueryCursor(Class<T> clazz, String sql, Object[] params, int fetchSize, QueryTimer timer) {
+        this.clazz = clazz;
+        this.timer = timer;
+        try {
+            connection = JdbcHelper.getConnection();
+            statement = connection.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            statement.setFetchSize(fetchSize);
+            JdbcHelper.bind(statement, params);
+            resultSet = statement.executeQuery();
+            timer.executed();
+            reader = ColumnReader.of(resultSet);
+            rowMapper = EntityMetadata.of(clazz).getRowMapper(JdbcHelper.getColumnNames(resultSet));
+            opened = true;
+        } catch (SQLException | RuntimeException e) {
+            timer.fail(e);
+            close();
+            throw new ECException("执行查询失败[" + sql + "]", e);
+        }
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (closed) {
+            return false;
+        }
+        if (!fetched) {
+            try {
+                hasRow = resultSet.next();
+            } catch (SQLException e) {
+                close();
+                throw new ECException("读取查询结果失败", e);
+            }
+            fetched = true;
+            if (!hasRow) {
+                close();
+            }
+        }
+        return hasRow;
+    }
+
+    @Override
+    public T next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        fetched = false;
+        try {
+            long mapStart = timer.mapStart();
+            T t = clazz.cast(rowMapper.map(reader, false));
+            timer.mapEnd(mapStart);
+            rows++;
+            return t;
+        } catch (RuntimeException e) {
+            close();
+            throw e;
+        }
+    }
+
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        hasRow = false;
+        JdbcHelper.close(resultSet, statement, connection);
+        resultSet = null;
+        statement = null;
+        connection = null;
+        if (opened) {
+            timer.finishStream(rows);
+        }
+    }
+}
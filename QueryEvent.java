@@ -0,0 +1,108 @@
+package com.handler.datasources;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 一次sql执行的信息
+ */
+public class QueryEvent {
+
+    private final String operation;
+
+    private final String sql;
+
+    private final List<String> parameters;
+
+    private final long buildNanos;
+
+    private final long executeNanos;
+
+    private final long mapNanos;
+
+    private final int rows;
+
+    private final Throwable error;
+
+    QueryEvent(String operation, String sql, List<String> parameters, long buildNanos, long executeNanos, long mapNanos,
+               int rows, Throwable error) {
+        this.operation = operation;
+        this.sql = sql;
+        this.parameters = parameters;
+        this.buildNanos = buildNanos;
+        this.executeNanos = executeNanos;
+        this.mapNanos = mapNanos;
+        this.rows = rows;
+        this.error = error;
+    }
+
+    /**
+     * @return 操作(DataSourcesHandler中的方法名)
+     */
+    public String getOperation() {
+        return operation;
+    }
+
+    /**
+     * @return 执行的sql(参数为占位符)
+     */
+    public String getSql() {
+        return sql;
+    }
+
+    /**
+     * @return 参数(默认只包含类型和长度，见QueryMetrics.setMaskParameters)
+     */
+    public List<String> getParameters() {
+        return parameters;
+    }
+
+    /**
+     * @return 生成sql的耗时(纳秒)
+     */
+    public long getBuildNanos() {
+        return buildNanos;
+    }
+
+    /**
+     * @return 执行sql的耗时(纳秒)
+     */
+    public long getExecuteNanos() {
+        return executeNanos;
+    }
+
+    /**
+     * @return 封装查询结果的耗时(纳秒)
+     */
+    public long getMapNanos() {
+        return mapNanos;
+    }
+
+    /**
+     * @return 总耗时(纳秒)
+     */
+    public long getTotalNanos() {
+        return buildNanos + executeNanos + mapNanos;
+    }
+
+    /**
+     * @return 查询返回或更新影响的行数(未知时为-1)
+     */
+    public int getRows() {
+        return rows;
+    }
+
+    /**
+     * @return 执行失败的异常(成功时为null)
+     */
+    public Throwable getError() {
+        return error;
+    }
+
+    @Override
+    public String toString() {
+        return "耗时" + TimeUnit.NANOSECONDS.toMillis(getTotalNanos()) + "ms(生成" + TimeUnit.NANOSECONDS.toMillis(buildNanos)
+                + "ms 执行" + TimeUnit.NANOSECONDS.toMillis(executeNanos) + "ms 封装" + TimeUnit.NANOSECONDS.toMillis(mapNanos)
+                + "ms) 行数" + rows + " 操作[" + operation + "] sql[" + sql + "] 参数" + parameters;
+    }
+}
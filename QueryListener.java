@@ -0,0 +1,17 @@
+package com.handler.datasources;
+
+/**
+ * 查询监听器
+ * 开启统计(QueryMetrics.setEnabled(true))后每次执行sql完成时调用，可用于对接外部监控系统
+ * 在执行sql的线程中同步调用，实现中不要做耗时操作
+ */
+@FunctionalInterface
+public interface QueryListener {
+
+    /**
+     * sql执行完成
+     *
+     * @param event 执行信息
+     */
+    void onQuery(QueryEvent event);
+}
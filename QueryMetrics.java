@@ -0,0 +1,271 @@
+package com.handler.datasources;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 查询统计
+ * 默认关闭，关闭时每次执行sql只多读取一次开关；开启后统计每条sql(模板)生成、执行、封装结果的耗时、行数及耗时分布，
+ * 记录慢查询日志，通知监听器，并通过JMX(com.handler.datasources:type=QueryMetrics)暴露
+ */
+public final class QueryMetrics {
+
+    private static final Log log = LogFactory.getLog(QueryMetrics.class);
+
+    /**
+     * 最多统计的sql条数(自定义sql拼接了参数值时sql条数没有上限)，超出的合并统计
+     */
+    private static final int MAX_TEMPLATES = 1000;
+
+    private static final String OTHER_TEMPLATE = "其它";
+
+    private static final String OBJECT_NAME = "com.handler.datasources:type=QueryMetrics";
+
+    private static volatile boolean enabled;
+
+    /**
+     * 慢查询阈值(毫秒)，默认1秒，小于等于0时不记录慢查询
+     */
+    private static volatile long slowQueryMillis = 1000;
+
+    /**
+     * 是否隐藏参数值(只保留类型和长度)
+     */
+    private static volatile boolean maskParameters = true;
+
+    private static final Map<String, QueryStats> STATS = new ConcurrentHashMap<>();
+
+    private static final List<QueryListener> LISTENERS = new CopyOnWriteArrayList<>();
+
+    private static final LongAdder QUERY_COUNT = new LongAdder();
+
+    private static final LongAdder ERROR_COUNT = new LongAdder();
+
+    private static final LongAdder SLOW_QUERY_COUNT = new LongAdder();
+
+    private static volatile boolean registered;
+
+    private QueryMetrics() {
+    }
+
+    static boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * 开启或关闭统计(第一次开启时注册JMX)
+     *
+     * @param enabled 是否开启
+     */
+    public static void setEnabled(boolean enabled) {
+        if (enabled) {
+            registerMBean();
+        }
+        QueryMetrics.enabled = enabled;
+    }
+
+    /**
+     * 设置慢查询阈值
+     *
+     * @param threshold 阈值(小于等于0时不记录慢查询)
+     * @param unit      时间单位
+     */
+    public static void setSlowQueryThreshold(long threshold, TimeUnit unit) {
+        slowQueryMillis = unit.toMillis(threshold);
+    }
+
+    /**
+     * 设置慢查询日志及监听器中是否隐藏参数值
+     *
+     * @param maskParameters 是否隐藏(默认隐藏，只保留参数类型和长度)
+     */
+    public static void setMaskParameters(boolean maskParameters) {
+        QueryMetrics.maskParameters = maskParameters;
+    }
+
+    /**
+     * 添加监听器
+     *
+     * @param listener 监听器
+     */
+    public static void addListener(QueryListener listener) {
+        LISTENERS.add(listener);
+    }
+
+    /**
+     * 移除监听器
+     *
+     * @param listener 监听器
+     */
+    public static void removeListener(QueryListener listener) {
+        LISTENERS.remove(listener);
+    }
+
+    /**
+     * @return 各sql的执行统计
+     */
+    public static List<QueryStats> getQueryStats() {
+        return new ArrayList<>(STATS.values());
+    }
+
+    /**
+     * 获取单条sql的执行统计
+     *
+     * @param sql sql
+     * @return 执行统计(没有执行过时为null)
+     */
+    public static QueryStats getQueryStats(String sql) {
+        return STATS.get(sql);
+    }
+
+    /**
+     * 清空统计
+     */
+    public static void reset() {
+        STATS.clear();
+        QUERY_COUNT.reset();
+        ERROR_COUNT.reset();
+        SLOW_QUERY_COUNT.reset();
+    }
+
+    /**
+     * 记录一次sql执行
+     */
+    static void record(String operation, String sql, Object parameters, long buildNanos, long executeNanos, long mapNanos,
+                       int rows, Throwable error) {
+        String template = null == sql ? operation : sql;
+        long slowMillis = slowQueryMillis;
+        boolean slow = slowMillis > 0 && TimeUnit.NANOSECONDS.toMillis(buildNanos + executeNanos + mapNanos) >= slowMillis;
+        List<QueryListener> listeners = LISTENERS;
+        QueryEvent event = new QueryEvent(operation, template, slow || !listeners.isEmpty() ? describe(parameters) : null,
+                buildNanos, executeNanos, mapNanos, rows, error);
+
+        QUERY_COUNT.increment();
+        if (null != error) {
+            ERROR_COUNT.increment();
+        }
+        QueryStats stats = STATS.get(template);
+        if (null == stats) {
+            stats = STATS.size() < MAX_TEMPLATES ? STATS.computeIfAbsent(template, QueryStats::new)
+                    : STATS.computeIfAbsent(OTHER_TEMPLATE, QueryStats::new);
+        }
+        stats.record(event);
+        if (slow) {
+            SLOW_QUERY_COUNT.increment();
+            log.warn("DataSourcesHandler【慢查询】" + event);
+        }
+        for (QueryListener listener : listeners) {
+            try {
+                listener.onQuery(event);
+            } catch (RuntimeException e) {
+                log.error("DataSourcesHandler【查询监听器执行失败】", e);
+            }
+        }
+    }
+
+    /**
+     * 参数描述(隐藏参数值时只保留类型和长度)
+     */
+    private static List<String> describe(Object parameters) {
+        List<String> result = new ArrayList<>();
+        describe(parameters, result, true);
+        return Collections.unmodifiableList(result);
+    }
+
+    private static void describe(Object parameter, List<String> result, boolean root) {
+        if (parameter instanceof Collection) {
+            for (Object element : (Collection<?>) parameter) {
+                describe(element, result, false);
+            }
+        } else if (root && parameter instanceof Object[]) {
+            for (Object element : (Object[]) parameter) {
+                describe(element, result, false);
+            }
+        } else if (!root || null != parameter) {
+            if (null == parameter) {
+                result.add("null");
+            } else if (maskParameters) {
+                String text = parameter.toString();
+                result.add(parameter.getClass().getSimpleName() + "(" + text.length() + ")");
+            } else {
+                result.add(parameter.toString());
+            }
+        }
+    }
+
+    private static void registerMBean() {
+        if (registered) {
+            return;
+        }
+        synchronized (QueryMetrics.class) {
+            if (registered) {
+                return;
+            }
+            registered = true;
+            try {
+                ObjectName objectName = new ObjectName(OBJECT_NAME);
+                if (!ManagementFactory.getPlatformMBeanServer().isRegistered(objectName)) {
+                    ManagementFactory.getPlatformMBeanServer().registerMBean(new MBean(), objectName);
+                }
+            } catch (Exception e) {
+                log.error("DataSourcesHandler【注册JMX失败】", e);
+            }
+        }
+    }
+
+    private static final class MBean implements QueryMetricsMXBean {
+
+        @Override
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        @Override
+        public void setEnabled(boolean enabled) {
+            QueryMetrics.setEnabled(enabled);
+        }
+
+        @Override
+        public long getSlowQueryMillis() {
+            return slowQueryMillis;
+        }
+
+        @Override
+        public void setSlowQueryMillis(long slowQueryMillis) {
+            QueryMetrics.slowQueryMillis = slowQueryMillis;
+        }
+
+        @Override
+        public long getQueryCount() {
+            return QUERY_COUNT.sum();
+        }
+
+        @Override
+        public long getErrorCount() {
+            return ERROR_COUNT.sum();
+        }
+
+        @Override
+        public long getSlowQueryCount() {
+            return SLOW_QUERY_COUNT.sum();
+        }
+
+        @Override
+        public List<QueryStats> getQueryStats() {
+            return QueryMetrics.getQueryStats();
+        }
+
+        @Override
+        public void reset() {
+            QueryMetrics.reset();
+        }
+    }
+}
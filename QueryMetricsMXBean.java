@@ -0,0 +1,43 @@
+package com.handler.datasources;
+
+import java.util.List;
+
+/**
+ * 查询统计的JMX接口
+ * 开启统计后注册为 com.handler.datasources:type=QueryMetrics
+ */
+public interface QueryMetricsMXBean {
+
+    boolean isEnabled();
+
+    void setEnabled(boolean enabled);
+
+    long getSlowQueryMillis();
+
+    void setSlowQueryMillis(long slowQueryMillis);
+
+    /**
+     * @return 执行次数
+     */
+    long getQueryCount();
+
+    /**
+     * @return 失败次数
+     */
+    long getErrorCount();
+
+    /**
+     * @return 慢查询次数
+     */
+    long getSlowQueryCount();
+
+    /**
+     * @return 各sql的执行统计
+     */
+    List<QueryStats> getQueryStats();
+
+    /**
+     * 清空统计
+     */
+    void reset();
+}
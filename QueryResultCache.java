@@ -0,0 +1,253 @@
+package com.handler.datasources;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 自定义sql查询结果缓存(customSelectListCached)
+ * 按(结果类型, 规范化后的sql, 参数)缓存，超过条数或估算内存上限时淘汰最久未使用的结果，超过有效期的结果在读取时清除；
+ * 缓存时可以指定结果依赖的表，通过本工具类对这些表的增删改会使结果失效
+ * 缓存的结果为共享实例，取出后不要修改
+ */
+public final class QueryResultCache {
+
+    /**
+     * 表名(小写) -> 版本号(每次写操作加1，缓存结果记录查询前的版本号，版本号变化后结果失效)
+     */
+    private static final Map<String, AtomicLong> VERSIONS = new ConcurrentHashMap<>();
+
+    private static volatile LruCache<ResultKey, CachedResult> cache = newCache(10000, TimeUnit.MINUTES.toMillis(1), 64L << 20);
+
+    private QueryResultCache() {
+    }
+
+    /**
+     * 设置缓存容量及有效期(清空现有缓存)
+     * 默认最多10000条、估算内存64MB、有效期1分钟
+     *
+     * @param maxSize  最多缓存的结果条数
+     * @param maxBytes 估算内存上限(字节，小于等于0时不限制)
+     * @param ttl      有效期
+     * @param unit     时间单位
+     */
+    public static void configure(int maxSize, long maxBytes, long ttl, TimeUnit unit) {
+        cache = newCache(maxSize, unit.toMillis(ttl), maxBytes);
+    }
+
+    /**
+     * 使依赖该表的缓存结果失效
+     *
+     * @param tableName 表名
+     */
+    public static void invalidate(String tableName) {
+        AtomicLong version = VERSIONS.get(tableName.toLowerCase());
+        if (null != version) {
+            version.incrementAndGet();
+        }
+    }
+
+    /**
+     * 清空缓存
+     */
+    public static void invalidateAll() {
+        cache.clear();
+    }
+
+    /**
+     * @return 缓存统计
+     */
+    public static CacheStats getStats() {
+        return cache.stats();
+    }
+
+    /**
+     * 生成缓存key
+     *
+     * @param type   结果类型(实体类，Map结果为null)
+     * @param sql    sql
+     * @param params 参数
+     * @return key
+     */
+    static ResultKey key(Class<?> type, String sql, Object[] params) {
+        List<Object> paramList = new ArrayList<>();
+        if (null != params) {
+            for (Object param : params) {
+                if (param instanceof Collection) {
+                    paramList.addAll((Collection<?>) param);
+                } else {
+                    paramList.add(param);
+                }
+            }
+        }
+        return new ResultKey(type, normalize(sql), paramList);
+    }
+
+    /**
+     * 获取缓存结果
+     *
+     * @param key key
+     * @return 结果(没有缓存、已过期或依赖的表有写操作时为null)
+     */
+    static Object get(ResultKey key) {
+        LruCache<ResultKey, CachedResult> current = cache;
+        CachedResult result = current.get(key);
+        if (null == result) {
+            return null;
+        }
+        for (int i = 0; i < result.tables.length; i++) {
+            if (version(result.tables[i]).get() != result.versions[i]) {
+                current.remove(key);
+                return null;
+            }
+        }
+        return result.value;
+    }
+
+    /**
+     * 记录依赖的表当前的版本号(查询前调用，查询期间有写操作时缓存的结果直接失效)
+     *
+     * @param tables 依赖的表
+     * @return 版本号
+     */
+    static long[] versions(String[] tables) {
+        long[] versions = new long[null != tables ? tables.length : 0];
+        for (int i = 0; i < versions.length; i++) {
+            versions[i] = version(tables[i].toLowerCase()).get();
+        }
+        return versions;
+    }
+
+    /**
+     * 缓存结果
+     *
+     * @param key      key
+     * @param value    结果(ResultTable或实体集合)
+     * @param tables   依赖的表
+     * @param versions 查询前依赖的表的版本号
+     */
+    static void put(ResultKey key, Object value, String[] tables, long[] versions) {
+        String[] tableNames = new String[versions.length];
+        for (int i = 0; i < tableNames.length; i++) {
+            tableNames[i] = tables[i].toLowerCase();
+        }
+        cache.put(key, new CachedResult(value, tableNames, versions, key.sql.length() * 2L + weigh(key.type, value)));
+    }
+
+    private static AtomicLong version(String tableName) {
+        AtomicLong version = VERSIONS.get(tableName);
+        if (null == version) {
+            version = VERSIONS.computeIfAbsent(tableName, key -> new AtomicLong());
+        }
+        return version;
+    }
+
+    private static LruCache<ResultKey, CachedResult> newCache(int maxSize, long ttlMillis, long maxBytes) {
+        return new LruCache<>(maxSize, ttlMillis, maxBytes, result -> result.weight);
+    }
+
+    /**
+     * 规范化sql(引号外连续的空白合并为一个空格)
+     */
+    private static String normalize(String sql) {
+        StringBuilder builder = new StringBuilder(sql.length());
+        boolean quoted = false;
+        boolean space = false;
+        for (int i = 0; i < sql.length(); i++) {
+            char c = sql.charAt(i);
+            if (!quoted && Character.isWhitespace(c)) {
+                space = builder.length() > 0;
+                continue;
+            }
+            if (space) {
+                builder.append(' ');
+                space = false;
+            }
+            if (c == '\'') {
+                quoted = !quoted;
+            }
+            builder.append(c);
+        }
+        return builder.toString();
+    }
+
+    /**
+     * 估算结果占用的内存(字节)
+     */
+    private static long weigh(Class<?> type, Object value) {
+        if (value instanceof ResultTable) {
+            return ((ResultTable) value).estimateBytes();
+        }
+        long bytes = 16;
+        if (null != type && value instanceof List) {
+            List<EntityField> fields = EntityMetadata.of(type).getFields();
+            for (Object entity : (List<?>) value) {
+                bytes += 8;
+                if (null == entity) {
+                    continue;
+                }
+                bytes += 16 + 8L * fields.size();
+                for (EntityField field : fields) {
+                    Object fieldValue = field.get(entity);
+                    if (fieldValue instanceof CharSequence) {
+                        bytes += 40 + 2L * ((CharSequence) fieldValue).length();
+                    } else if (null != fieldValue && !field.getType().isPrimitive()) {
+                        bytes += 24;
+                    }
+                }
+            }
+        }
+        return bytes;
+    }
+
+    static final class ResultKey {
+
+        private final Class<?> type;
+
+        private final String sql;
+
+        private final List<Object> params;
+
+        private ResultKey(Class<?> type, String sql, List<Object> params) {
+            this.type = type;
+            this.sql = sql;
+            this.params = params;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof ResultKey)) {
+                return false;
+            }
+            ResultKey other = (ResultKey) o;
+            return type == other.type && sql.equals(other.sql) && params.equals(other.params);
+        }
+
+        @Override
+        public int hashCode() {
+            return (Objects.hashCode(type) * 31 + sql.hashCode()) * 31 + params.hashCode();
+        }
+    }
+
+    private static final class CachedResult {
+
+        private final Object value;
+
+        private final String[] tables;
+
+        private final long[] versions;
+
+        private final long weight;
+
+        private CachedResult(Object value, String[] tables, long[] versions, long weight) {
+            this.value = value;
+            this.tables = tables;
+            this.versions = versions;
+            this.weight = weight;
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package com.handler.datasources;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 单条sql(模板)的执行统计
+ */
+public class QueryStats {
+
+    /**
+     * 耗时分布的区间上限(毫秒)，最后一个区间为大于5000ms
+     */
+    private static final long[] BUCKET_BOUNDS = {1, 5, 10, 50, 100, 500, 1000, 5000};
+
+    private final String sql;
+
+    private final LongAdder count = new LongAdder();
+
+    private final LongAdder errorCount = new LongAdder();
+
+    private final LongAdder rows = new LongAdder();
+
+    private final LongAdder buildNanos = new LongAdder();
+
+    private final LongAdder executeNanos = new LongAdder();
+
+    private final LongAdder mapNanos = new LongAdder();
+
+    private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+
+    private final LongAdder[] buckets = new LongAdder[BUCKET_BOUNDS.length + 1];
+
+    QueryStats(String sql) {
+        this.sql = sql;
+        for (int i = 0; i < buckets.length; i++) {
+            buckets[i] = new LongAdder();
+        }
+    }
+
+    void record(QueryEvent event) {
+        count.increment();
+        if (null != event.getError()) {
+            errorCount.increment();
+        }
+        if (event.getRows() > 0) {
+            rows.add(event.getRows());
+        }
+        buildNanos.add(event.getBuildNanos());
+        executeNanos.add(event.getExecuteNanos());
+        mapNanos.add(event.getMapNanos());
+        long totalNanos = event.getTotalNanos();
+        maxNanos.accumulate(totalNanos);
+        long millis = TimeUnit.NANOSECONDS.toMillis(totalNanos);
+        int bucket = 0;
+        while (bucket < BUCKET_BOUNDS.length && millis >= BUCKET_BOUNDS[bucket]) {
+            bucket++;
+        }
+        buckets[bucket].increment();
+    }
+
+    /**
+     * @return sql
+     */
+    public String getSql() {
+        return sql;
+    }
+
+    /**
+     * @return 执行次数
+     */
+    public long getCount() {
+        return count.sum();
+    }
+
+    /**
+     * @return 失败次数
+     */
+    public long getErrorCount() {
+        return errorCount.sum();
+    }
+
+    /**
+     * @return 查询返回或更新影响的总行数
+     */
+    public long getRows() {
+        return rows.sum();
+    }
+
+    /**
+     * @return 生成sql的总耗时(毫秒)
+     */
+    public long getBuildMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(buildNanos.sum());
+    }
+
+    /**
+     * @return 执行sql的总耗时(毫秒)
+     */
+    public long getExecuteMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(executeNanos.sum());
+    }
+
+    /**
+     * @return 封装查询结果的总耗时(毫秒)
+     */
+    public long getMapMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(mapNanos.sum());
+    }
+
+    /**
+     * @return 单次最大耗时(毫秒)
+     */
+    public long getMaxMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(maxNanos.get());
+    }
+
+    /**
+     * 耗时分布
+     * 依次为小于1ms、1-5ms、5-10ms、10-50ms、50-100ms、100-500ms、500-1000ms、1000-5000ms、大于等于5000ms的次数
+     *
+     * @return 各区间的次数
+     */
+    public long[] getHistogram() {
+        long[] result = new long[buckets.length];
+        for (int i = 0; i < buckets.length; i++) {
+            result[i] = buckets[i].sum();
+        }
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return "QueryStats{sql=" + sql + ", count=" + getCount() + ", errorCount=" + getErrorCount() + ", rows=" + getRows()
+                + ", buildMillis=" + getBuildMillis() + ", executeMillis=" + getExecuteMillis() + ", mapMillis=" + getMapMillis()
+                + ", maxMillis=" + getMaxMillis() + "}";
+    }
+}
@@ -0,0 +1,139 @@
+package com.handler.datasources;
+
+/**
+ * 单次sql执行的分段计时
+ * 依次调用built(生成sql完成)、executed(执行完成)、finish(封装结果完成)，finish时记录到QueryMetrics
+ * 执行失败时调用fail，之后的finish不再重复记录
+ * 统计关闭时返回共享的空实例，各方法直接返回
+ */
+final class QueryTimer {
+
+    private static final QueryTimer DISABLED = new QueryTimer(null);
+
+    private final String operation;
+
+    private final long startAt;
+
+    private long builtAt;
+
+    private long executedAt;
+
+    private long mapNanos;
+
+    private String sql;
+
+    private Object parameters;
+
+    /**
+     * 是否已记录(finish或fail只记录第一次)
+     */
+    private boolean recorded;
+
+    private QueryTimer(String operation) {
+        this.operation = operation;
+        this.startAt = null != operation ? System.nanoTime() : 0;
+    }
+
+    /**
+     * 开始计时
+     *
+     * @param operation 操作(方法名)
+     * @return 计时器(统计关闭时为空实例)
+     */
+    static QueryTimer start(String operation) {
+        return QueryMetrics.isEnabled() ? new QueryTimer(operation) : DISABLED;
+    }
+
+    /**
+     * 生成sql完成
+     *
+     * @param sql        sql
+     * @param parameters 参数(集合或数组)
+     */
+    void built(String sql, Object parameters) {
+        if (this == DISABLED) {
+            return;
+        }
+        this.builtAt = System.nanoTime();
+        this.sql = sql;
+        this.parameters = parameters;
+    }
+
+    /**
+     * 执行sql完成
+     */
+    void executed() {
+        if (this == DISABLED) {
+            return;
+        }
+        this.executedAt = System.nanoTime();
+    }
+
+    /**
+     * 封装结果完成
+     *
+     * @param rows 查询返回或更新影响的行数(未知时为-1)
+     */
+    void finish(int rows) {
+        if (this == DISABLED || recorded) {
+            return;
+        }
+        mapNanos += System.nanoTime() - executedAt;
+        record(rows, null);
+    }
+
+    /**
+     * 执行失败
+     *
+     * @param error 异常
+     */
+    void fail(Throwable error) {
+        if (this == DISABLED || recorded) {
+            return;
+        }
+        if (0 == executedAt) {
+            executedAt = System.nanoTime();
+        }
+        record(-1, error);
+    }
+
+    /**
+     * 流式查询中封装一行前调用
+     *
+     * @return 当前时间(统计关闭时为0)
+     */
+    long mapStart() {
+        return this == DISABLED ? 0 : System.nanoTime();
+    }
+
+    /**
+     * 流式查询中封装一行后调用
+     *
+     * @param startNanos mapStart()的返回值
+     */
+    void mapEnd(long startNanos) {
+        if (this == DISABLED) {
+            return;
+        }
+        mapNanos += System.nanoTime() - startNanos;
+    }
+
+    /**
+     * 流式查询结束(封装耗时为各行mapStart/mapEnd之间的累计耗时，不包含调用方处理每一行的耗时)
+     *
+     * @param rows 读取的行数
+     */
+    void finishStream(int rows) {
+        if (this == DISABLED || recorded) {
+            return;
+        }
+        record(rows, null);
+    }
+
+    private void record(int rows, Throwable error) {
+        recorded = true;
+        long built = 0 != builtAt ? builtAt : startAt;
+        long executed = 0 != executedAt ? executedAt : built;
+        QueryMetrics.record(operation, sql, parameters, built - startAt, executed - built, mapNanos, rows, error);
+    }
+}
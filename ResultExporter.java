@@ -0,0 +1,106 @@
+package com.handler.datasources;
+
+import com.engine.core.exception.ECException;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.sql.*;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * 查询结果导出
+ * 使用JDBC游标逐行读取并直接写入输出，不封装实体也不生成中间集合，内存占用与结果行数无关
+ */
+final class ResultExporter {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private ResultExporter() {
+    }
+
+    /**
+     * 导出到字节流(UTF-8)
+     * 导出完成后刷新输出但不关闭
+     *
+     * @return 导出的行数
+     */
+    static long export(String sql, Object[] params, int fetchSize, ExportFormat format, OutputStream out, boolean gzip,
+                       QueryTimer timer) {
+        try {
+            GZIPOutputStream gzipStream = gzip ? new GZIPOutputStream(out, BUFFER_SIZE) : null;
+            Writer writer = new BufferedWriter(new OutputStreamWriter(null != gzipStream ? gzipStream : out,
+                    StandardCharsets.UTF_8), BUFFER_SIZE);
+            long rows = export(sql, params, fetchSize, format, writer, timer);
+            if (null != gzipStream) {
+                gzipStream.finish();
+            }
+            out.flush();
+            return rows;
+        } catch (IOException e) {
+            throw new ECException("导出失败[" + sql + "]", e);
+        }
+    }
+
+    /**
+     * 导出到字符流
+     * 导出完成后刷新输出但不关闭
+     *
+     * @return 导出的行数
+     */
+    static long export(String sql, Object[] params, int fetchSize, ExportFormat format, Writer out, QueryTimer timer) {
+        Writer writer = out instanceof BufferedWriter ? out : new BufferedWriter(out, BUFFER_SIZE);
+        Connection connection = null;
+        PreparedStatement statement = null;
+        ResultSet resultSet = null;
+        long rows = 0;
+        try {
+            connection = JdbcHelper.getConnection();
+            statement = connection.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            statement.setFetchSize(fetchSize);
+            JdbcHelper.bind(statement, params);
+            resultSet = statement.executeQuery();
+            timer.executed();
+            String[] columnNames = JdbcHelper.getColumnNames(resultSet);
+            boolean[] numeric = numericColumns(resultSet.getMetaData(), columnNames.length);
+            String[] values = new String[columnNames.length];
+            format.writeHeader(writer, columnNames);
+            while (resultSet.next()) {
+                for (int i = 0; i < values.length; i++) {
+                    values[i] = resultSet.getString(i + 1);
+                }
+                format.writeRow(writer, columnNames, values, numeric);
+                rows++;
+            }
+            writer.flush();
+            timer.finish((int) Math.min(rows, Integer.MAX_VALUE));
+            return rows;
+        } catch (SQLException | IOException | RuntimeException e) {
+            timer.fail(e);
+            throw new ECException("导出失败[" + sql + "]，已导出" + rows + "行", e);
+        } finally {
+            JdbcHelper.close(resultSet, statement, connection);
+        }
+    }
+
+    private static boolean[] numericColumns(ResultSetMetaData metaData, int columnCount) throws SQLException {
+        boolean[] numeric = new boolean[columnCount];
+        for (int i = 0; i < columnCount; i++) {
+            switch (metaData.getColumnType(i + 1)) {
+                case Types.TINYINT:
+                case Types.SMALLINT:
+                case Types.INTEGER:
+                case Types.BIGINT:
+                case Types.DECIMAL:
+                case Types.NUMERIC:
+                case Types.REAL:
+                case Types.FLOAT:
+                case Types.DOUBLE:
+                    numeric[i] = true;
+                    break;
+                default:
+                    numeric[i] = false;
+            }
+        }
+        return numeric;
+    }
+}
@@ -0,0 +1,150 @@
+package com.handler.datasources;
+
+import java.util.*;
+
+/**
+ * 紧凑的查询结果
+ * 所有行共用一份列名及列序号，每行只保存一个值数组；按下标获取的每一行是只读的Map视图，
+ * get(列名)的结果与customSelectList(String, Object...)返回的Map一致，可以直接替换List&lt;Map&lt;String, String&gt;&gt;使用
+ */
+public class ResultTable extends AbstractList<Map<String, String>> implements RandomAccess {
+
+    private final String[] columnNames;
+
+    /**
+     * 列名 -> 列下标(列名重复时取第一列，与RecordSet按列名取值一致)
+     */
+    private final Map<String, Integer> columnIndexes;
+
+    private final List<String[]> rows = new ArrayList<>();
+
+    ResultTable(String[] columnNames) {
+        this.columnNames = columnNames.clone();
+        Map<String, Integer> indexes = new HashMap<>();
+        for (int i = 0; i < columnNames.length; i++) {
+            indexes.putIfAbsent(columnNames[i], i);
+        }
+        this.columnIndexes = indexes;
+    }
+
+    void addRow(String[] values) {
+        rows.add(values);
+    }
+
+    /**
+     * @return 列名
+     */
+    public List<String> getColumnNames() {
+        return Collections.unmodifiableList(Arrays.asList(columnNames));
+    }
+
+    /**
+     * 获取单元格的值
+     *
+     * @param rowIndex   行下标
+     * @param columnName 列名
+     * @return 值(没有该列时为null)
+     */
+    public String getString(int rowIndex, String columnName) {
+        Integer columnIndex = columnIndexes.get(columnName);
+        return null != columnIndex ? rows.get(rowIndex)[columnIndex] : null;
+    }
+
+    /**
+     * 获取单元格的值
+     *
+     * @param rowIndex    行下标
+     * @param columnIndex 列下标(从0开始)
+     * @return 值
+     */
+    public String getString(int rowIndex, int columnIndex) {
+        return rows.get(rowIndex)[columnIndex];
+    }
+
+    /**
+     * 获取一行的只读Map视图
+     *
+     * @param index 行下标
+     * @return 列名 -> 值
+     */
+    @Override
+    public Map<String, String> get(int index) {
+        return new Row(rows.get(index));
+    }
+
+    @Override
+    public int size() {
+        return rows.size();
+    }
+
+    /**
+     * @return 估算占用的内存(字节)
+     */
+    long estimateBytes() {
+        long bytes = 16 + 4L * columnNames.length;
+        for (String[] values : rows) {
+            bytes += 24 + 4L * values.length;
+            for (String value : values) {
+                if (null != value) {
+                    bytes += 40 + 2L * value.length();
+                }
+            }
+        }
+        return bytes;
+    }
+
+    /**
+     * 一行的只读视图
+     */
+    private final class Row extends AbstractMap<String, String> {
+
+        private final String[] values;
+
+        private Row(String[] values) {
+            this.values = values;
+        }
+
+        @Override
+        public String get(Object key) {
+            Integer columnIndex = columnIndexes.get(key);
+            return null != columnIndex ? values[columnIndex] : null;
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return columnIndexes.containsKey(key);
+        }
+
+        @Override
+        public int size() {
+            return columnIndexes.size();
+        }
+
+        @Override
+        public Set<Entry<String, String>> entrySet() {
+            return new AbstractSet<Entry<String, String>>() {
+                @Override
+                public Iterator<Entry<String, String>> iterator() {
+                    Iterator<Entry<String, Integer>> iterator = columnIndexes.entrySet().iterator();
+                    return new Iterator<Entry<String, String>>() {
+                        @Override
+                        public boolean hasNext() {
+                            return iterator.hasNext();
+                        }
+
+                        @Override
+                        public Entry<String, String> next() {
+                            Entry<String, Integer> entry = iterator.next();
+                            return new SimpleImmutableEntry<>(entry.getKey(), values[entry.getValue()]);
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    return columnIndexes.size();
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.handler.datasources;
+
+import cn.hutool.core.util.ObjectUtil;
+import com.engine.core.exception.ECException;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 结果集列与实体字段的绑定关系
+ * 每种列名组合只解析一次(不区分大小写)，之后每一行按列序号直接取值赋值；
+ * 实体类有编译时生成的映射器时整行交给映射器读取
+ */
+final class RowMapper {
+
+    private final EntityMetadata metadata;
+
+    /**
+     * 结果集列序号(从1开始)
+     */
+    private final int[] columnIndexes;
+
+    /**
+     * 与列序号一一对应的字段
+     */
+    private final EntityField[] fields;
+
+    /**
+     * 映射器各属性在结果集中的列序号(0表示没有该列，没有映射器时为null)
+     */
+    private final int[] mapperColumnIndexes;
+
+    RowMapper(EntityMetadata metadata, String[] columnNames) {
+        this.metadata = metadata;
+        List<Integer> indexList = new ArrayList<>();
+        List<EntityField> fieldList = new ArrayList<>();
+        for (int i = 0; i < columnNames.length; i++) {
+            EntityField field = metadata.getFieldByColumn(columnNames[i]);
+            if (null != field) {
+                indexList.add(i + 1);
+                fieldList.add(field);
+            }
+        }
+        this.columnIndexes = new int[indexList.size()];
+        for (int i = 0; i < columnIndexes.length; i++) {
+            columnIndexes[i] = indexList.get(i);
+        }
+        this.fields = fieldList.toArray(new EntityField[0]);
+        if (null != metadata.getMapper()) {
+            this.mapperColumnIndexes = new int[metadata.getFields().size()];
+            for (int i = 0; i < fields.length; i++) {
+                mapperColumnIndexes[fields[i].getMapperIndex()] = columnIndexes[i];
+            }
+        } else {
+            this.mapperColumnIndexes = null;
+        }
+    }
+
+    /**
+     * 将当前行赋值到新建的实体对象中
+     *
+     * @param reader    当前行
+     * @param skipEmpty 是否跳过空值
+     * @return 实体对象
+     */
+    Object map(ColumnReader reader, boolean skipEmpty) {
+        try {
+            if (null != mapperColumnIndexes) {
+                return reader.readRow(metadata.getMapper(), mapperColumnIndexes, skipEmpty);
+            }
+            Object entity = metadata.newInstance();
+            for (int i = 0; i < fields.length; i++) {
+                Object value = fields[i].read(reader, columnIndexes[i]);
+                if (skipEmpty && ObjectUtil.isEmpty(value)) {
+                    continue;
+                }
+                fields[i].set(entity, value);
+            }
+            return entity;
+        } catch (SQLException e) {
+            throw new ECException("读取查询结果失败", e);
+        } catch (ECException e) {
+            throw e;
+        } catch (RuntimeException e) {
+            throw new ECException("CLASS【" + metadata.getEntityClass().getTypeName() + "】读取查询结果失败", e);
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package com.handler.datasources;
+
+import com.alibaba.fastjson.parser.ParserConfig;
+import com.alibaba.fastjson.util.TypeUtils;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.util.Date;
+
+/**
+ * 字符串解析工具
+ * 数字允许千分位逗号和小数，布尔值兼容1/0、Y/N、T/F，日期兼容时间戳及常见格式；
+ * 常用类型的解析由ColumnConverters中注册的转换器调用这里的方法，
+ * 没有注册转换器的类型交给fastjson的TypeUtils处理(convert)
+ */
+final class ValueConverter {
+
+    private ValueConverter() {
+    }
+
+    /**
+     * 转换为没有注册转换器的字段类型
+     *
+     * @param value 字符串值
+     * @param type  字段类型
+     * @return 转换后的值(空字符串转换为非字符串类型时为null)
+     */
+    static Object convert(String value, Class<?> type) {
+        if (null == value) {
+            return null;
+        }
+        if (type == String.class || type == Object.class || type == CharSequence.class) {
+            return value;
+        }
+        String text = value.trim();
+        if (text.isEmpty() || "null".equalsIgnoreCase(text)) {
+            return null;
+        }
+        return TypeUtils.cast(value, type, ParserConfig.getGlobalInstance());
+    }
+
+    /**
+     * 转换为Long(用于读取id等数字字段的值)
+     *
+     * @param value 字段值
+     * @return Long值(为空时为null)
+     */
+    static Long toLong(Object value) {
+        if (null == value) {
+            return null;
+        }
+        if (value instanceof Number) {
+            return ((Number) value).longValue();
+        }
+        String text = value.toString().trim();
+        return text.isEmpty() || "null".equalsIgnoreCase(text) ? null : parseLong(text);
+    }
+
+    static long parseLong(String text) {
+        String number = stripComma(text);
+        int length = number.length();
+        boolean plain = length < 19;
+        for (int i = 0; plain && i < length; i++) {
+            char c = number.charAt(i);
+            plain = (c >= '0' && c <= '9') || (i == 0 && c == '-' && length > 1);
+        }
+        return plain ? Long.parseLong(number) : new BigDecimal(number).longValue();
+    }
+
+    static String stripComma(String text) {
+        return text.indexOf(',') < 0 ? text : text.replace(",", "");
+    }
+
+    static Boolean parseBoolean(String text) {
+        if ("true".equalsIgnoreCase(text) || "1".equals(text) || "Y".equalsIgnoreCase(text) || "T".equalsIgnoreCase(text)) {
+            return Boolean.TRUE;
+        }
+        if ("false".equalsIgnoreCase(text) || "0".equals(text) || "N".equalsIgnoreCase(text) || "F".equalsIgnoreCase(text)) {
+            return Boolean.FALSE;
+        }
+        return TypeUtils.cast(text, Boolean.class, ParserConfig.getGlobalInstance());
+    }
+
+    /**
+     * 解析日期
+     * 常见的yyyy-MM-dd、yyyy-MM-dd HH:mm[:ss[.SSS]]以及毫秒时间戳直接解析，其余格式交给fastjson
+     */
+    static Date parseDate(String text) {
+        int length = text.length();
+        if (length >= 10 && text.charAt(4) == '-' && text.charAt(7) == '-') {
+            try {
+                LocalDate date = LocalDate.of(digits(text, 0, 4), digits(text, 5, 7), digits(text, 8, 10));
+                LocalDateTime dateTime;
+                if (length == 10) {
+                    dateTime = date.atStartOfDay();
+                } else if ((text.charAt(10) == ' ' || text.charAt(10) == 'T') && length >= 16 && text.charAt(13) == ':') {
+                    int second = length >= 19 && text.charAt(16) == ':' ? digits(text, 17, 19) : 0;
+                    int millis = 0;
+                    if (length > 20 && text.charAt(19) == '.') {
+                        int end = Math.min(length, 23);
+                        millis = digits(text, 20, end);
+                        for (int i = end - 20; i < 3; i++) {
+                            millis *= 10;
+                        }
+                    }
+                    dateTime = date.atTime(LocalTime.of(digits(text, 11, 13), digits(text, 14, 16), second, millis * 1000000));
+                } else {
+                    dateTime = null;
+                }
+                if (null != dateTime) {
+                    return Date.from(dateTime.atZone(ZoneId.systemDefault()).toInstant());
+                }
+            } catch (RuntimeException ignored) {
+                // 格式不符合，交给fastjson解析
+            }
+        }
+        return TypeUtils.castToDate(text);
+    }
+
+    private static int digits(String text, int start, int end) {
+        int result = 0;
+        for (int i = start; i < end; i++) {
+            char c = text.charAt(i);
+            if (c < '0' || c > '9') {
+                throw new NumberFormatException(text);
+            }
+            result = result * 10 + (c - '0');
+        }
+        return result;
+    }
+}
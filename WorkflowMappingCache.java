@@ -0,0 +1,163 @@
+package com.handler.datasources;
+
+import weaver.conn.RecordSet;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * workflow_mapping映射缓存
+ * 映射名 -> (表名, 流程ID)，所有DataSourcesHandler实例共享
+ * 过期后第一次访问时用一条sql重新加载整张workflow_mapping表，
+ * 单个映射被清除或不存在时只查询该映射(不存在的结果同样缓存)
+ */
+public final class WorkflowMappingCache {
+
+    private static final String LOAD_ALL_SQL = "select name, table_name, workflow_id from workflow_mapping where action = 1";
+
+    private static final String LOAD_ONE_SQL = "select name, table_name, workflow_id from workflow_mapping where action = 1 and name = ?";
+
+    private static final Object LOCK = new Object();
+
+    /**
+     * 缓存有效期(毫秒)，默认5分钟
+     */
+    private static volatile long ttlMillis = TimeUnit.MINUTES.toMillis(5);
+
+    private static volatile Map<String, Mapping> mappings = new ConcurrentHashMap<>();
+
+    /**
+     * 上次整表加载的时间(0表示未加载)
+     */
+    private static volatile long loadedAt;
+
+    private WorkflowMappingCache() {
+    }
+
+    /**
+     * 设置缓存有效期
+     *
+     * @param ttl  有效期(小于等于0时每次都重新查询)
+     * @param unit 时间单位
+     */
+    public static void setTtl(long ttl, TimeUnit unit) {
+        ttlMillis = unit.toMillis(ttl);
+    }
+
+    /**
+     * 预热(加载整张workflow_mapping表)
+     */
+    public static void warmUp() {
+        refresh();
+    }
+
+    /**
+     * 重新加载整张workflow_mapping表
+     */
+    public static void refresh() {
+        synchronized (LOCK) {
+            long now = System.currentTimeMillis();
+            Map<String, Mapping> loaded = new ConcurrentHashMap<>();
+            RecordSet recordSet = new RecordSet();
+            recordSet.executeQuery(LOAD_ALL_SQL);
+            while (recordSet.next()) {
+                String name = recordSet.getString("name");
+                loaded.putIfAbsent(name, new Mapping(recordSet.getString("table_name"), recordSet.getString("workflow_id"), now));
+            }
+            mappings = loaded;
+            loadedAt = now;
+        }
+    }
+
+    /**
+     * 清除单个映射(下次访问时重新查询)
+     *
+     * @param mappingName 映射名
+     */
+    public static void invalidate(String mappingName) {
+        mappings.remove(mappingName);
+    }
+
+    /**
+     * 清除全部映射(下次访问时重新加载整表)
+     */
+    public static void invalidateAll() {
+        synchronized (LOCK) {
+            mappings = new ConcurrentHashMap<>();
+            loadedAt = 0;
+        }
+    }
+
+    /**
+     * 获取映射表名
+     *
+     * @param mappingName 映射名(对应workflow_mapping表中的name字段)
+     * @return 表名(没有该映射时为null)
+     */
+    public static String getTableName(String mappingName) {
+        return get(mappingName).tableName;
+    }
+
+    /**
+     * 获取映射流程ID
+     *
+     * @param mappingName 映射名(对应workflow_mapping表中的name字段)
+     * @return 流程ID(没有该映射时为null)
+     */
+    public static String getWorkflowId(String mappingName) {
+        return get(mappingName).workflowId;
+    }
+
+    private static Mapping get(String mappingName) {
+        long now = System.currentTimeMillis();
+        if (ttlMillis <= 0) {
+            // 不缓存时只查询该映射，不重新加载整表
+            return loadOne(mappingName, now);
+        }
+        if (isExpired(loadedAt, now)) {
+            synchronized (LOCK) {
+                if (isExpired(loadedAt, now)) {
+                    refresh();
+                }
+            }
+        }
+        Map<String, Mapping> current = mappings;
+        Mapping mapping = current.get(mappingName);
+        if (null != mapping && !isExpired(mapping.loadedAt, now)) {
+            return mapping;
+        }
+        mapping = loadOne(mappingName, now);
+        current.put(mappingName, mapping);
+        return mapping;
+    }
+
+    private static Mapping loadOne(String mappingName, long now) {
+        RecordSet recordSet = new RecordSet();
+        recordSet.executeQuery(LOAD_ONE_SQL, mappingName);
+        if (recordSet.next()) {
+            return new Mapping(recordSet.getString("table_name"), recordSet.getString("workflow_id"), now);
+        } else {
+            return new Mapping(null, null, now);
+        }
+    }
+
+    private static boolean isExpired(long time, long now) {
+        return now - time >= ttlMillis;
+    }
+
+    private static final class Mapping {
+
+        private final String tableName;
+
+        private final String workflowId;
+
+        private final long loadedAt;
+
+        private Mapping(String tableName, String workflowId, long loadedAt) {
+            this.tableName = tableName;
+            this.workflowId = workflowId;
+            this.loadedAt = loadedAt;
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package com.annotation;
+
+import java.lang.annotation.*;
+
+/**
+ * 增量拉取使用的修改时间列(selectChangedSince)
+ * 没有该注解的实体类按id增量拉取(只能拉取新增的数据)
+ */
+@Target({ElementType.TYPE})
+@Retention(RetentionPolicy.RUNTIME)
+@Inherited
+public @interface ChangeTracking {
+
+    /**
+     * 修改日期列(yyyy-MM-dd)
+     */
+    String dateColumn() default "modedatamodifydate";
+
+    /**
+     * 修改时间列(HH:mm:ss)
+     */
+    String timeColumn() default "modedatamodifytime";
+
+    /**
+     * 创建日期列(修改日期为空时使用，为空字符串时不使用)
+     */
+    String createDateColumn() default "modedatacreatedate";
+
+    /**
+     * 创建时间列(修改时间为空时使用，为空字符串时不使用)
+     */
+    String createTimeColumn() default "modedatacreatetime";
+
+}
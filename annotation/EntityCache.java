@@ -0,0 +1,25 @@
+package com.annotation;
+
+import java.lang.annotation.*;
+
+/**
+ * 开启实体缓存(与TableName一起使用)
+ * selectById、selectOne的结果按表缓存，通过本工具类对该表的增删改会自动清空缓存
+ * 命中缓存时返回缓存的副本(浅拷贝)，可以修改后再updateById；字段引用的对象(如Date)与缓存共享，不要直接修改这些对象
+ */
+@Target({ElementType.TYPE})
+@Retention(RetentionPolicy.RUNTIME)
+@Inherited
+public @interface EntityCache {
+
+    /**
+     * 最多缓存的数据条数(超过时淘汰最久未使用的数据)
+     */
+    int maxSize() default 1000;
+
+    /**
+     * 缓存有效期(秒)
+     */
+    long ttlSeconds() default 300;
+
+}
@@ -0,0 +1,343 @@
+package com.annotation.processor;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.*;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.lang.model.util.Elements;
+import javax.lang.model.util.Types;
+import javax.tools.Diagnostic;
+import javax.tools.JavaFileObject;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.*;
+
+/**
+ * 实体映射器生成
+ * 为添加了TableName/TableMapping注解的实体类在同一个包中生成 实体类名$$Mapper(实现com.handler.datasources.EntityMapper)，
+ * 通过getXxx()/setXxx()或直接访问字段读写属性，运行时不再需要反射；
+ * 生成的readRow(读取一行)和bind(生成sql参数)逐个属性直接调用该属性类型的转换器，每处调用只对应一种转换器
+ * 无法生成(私有类、非静态内部类、没有可访问的无参构造、私有字段没有getXxx()、属性重名)的实体类跳过，运行时使用反射
+ * 编译时将本类加入-processorpath(已在META-INF/services中注册)即可
+ */
+@SupportedAnnotationTypes({"com.annotation.TableName", "com.annotation.TableMapping"})
+public class EntityMapperProcessor extends AbstractProcessor {
+
+    private static final String MAPPER_SUFFIX = "$$Mapper";
+
+    private static final String MAPPER_INTERFACE = "com.handler.datasources.EntityMapper";
+
+    private static final String COLUMN_NAME = "com.annotation.ColumnName";
+
+    private static final String CONVERTER = "com.handler.datasources.ColumnConverter<Object>";
+
+    private static final String CONVERTERS = "com.handler.datasources.ColumnConverters";
+
+    private final Set<String> generated = new HashSet<>();
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        for (TypeElement annotation : annotations) {
+            for (TypeElement type : ElementFilter.typesIn(roundEnv.getElementsAnnotatedWith(annotation))) {
+                String binaryName = processingEnv.getElementUtils().getBinaryName(type).toString();
+                if (generated.add(binaryName)) {
+                    generate(type, binaryName);
+                }
+            }
+        }
+        return false;
+    }
+
+    private void generate(TypeElement type, String binaryName) {
+        String reason = checkType(type);
+        List<Property> properties = new ArrayList<>();
+        if (null == reason) {
+            reason = collectProperties(type, properties);
+        }
+        if (null != reason) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.NOTE,
+                    "未生成" + type.getQualifiedName() + "的映射器(" + reason + ")，运行时使用反射", type);
+            return;
+        }
+        Elements elements = processingEnv.getElementUtils();
+        String packageName = elements.getPackageOf(type).getQualifiedName().toString();
+        String simpleName = (packageName.isEmpty() ? binaryName : binaryName.substring(packageName.length() + 1)) + MAPPER_SUFFIX;
+        String qualifiedName = packageName.isEmpty() ? simpleName : packageName + "." + simpleName;
+        try {
+            JavaFileObject file = processingEnv.getFiler().createSourceFile(qualifiedName, type);
+            try (Writer writer = file.openWriter()) {
+                writer.write(source(type, packageName, simpleName, properties));
+            }
+        } catch (IOException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, "生成" + qualifiedName + "失败：" + e.getMessage(), type);
+        }
+    }
+
+    /**
+     * 检查实体类能否在同一个包中直接访问
+     *
+     * @return 不能生成的原因(可以生成时为null)
+     */
+    private String checkType(TypeElement type) {
+        if (type.getKind() != ElementKind.CLASS || type.getModifiers().contains(Modifier.ABSTRACT)) {
+            return "不是普通类";
+        }
+        for (Element current = type; current instanceof TypeElement; current = current.getEnclosingElement()) {
+            if (current.getModifiers().contains(Modifier.PRIVATE)) {
+                return "私有类";
+            }
+            if (current.getEnclosingElement() instanceof TypeElement && !current.getModifiers().contains(Modifier.STATIC)) {
+                return "非静态内部类";
+            }
+        }
+        List<ExecutableElement> constructors = ElementFilter.constructorsIn(type.getEnclosedElements());
+        for (ExecutableElement constructor : constructors) {
+            if (constructor.getParameters().isEmpty() && !constructor.getModifiers().contains(Modifier.PRIVATE)) {
+                return null;
+            }
+        }
+        return "没有可访问的无参构造方法";
+    }
+
+    /**
+     * 收集本类及父类的所有非静态字段(本类在前，与运行时元数据的顺序一致)
+     *
+     * @return 不能生成的原因(可以生成时为null)
+     */
+    private String collectProperties(TypeElement type, List<Property> properties) {
+        Elements elements = processingEnv.getElementUtils();
+        Types types = processingEnv.getTypeUtils();
+        PackageElement packageElement = elements.getPackageOf(type);
+        List<ExecutableElement> methods = ElementFilter.methodsIn(elements.getAllMembers(type));
+        Set<String> names = new HashSet<>();
+        for (TypeElement current = type; null != current && !current.getQualifiedName().contentEquals("java.lang.Object");
+             current = superclass(current)) {
+            for (VariableElement field : ElementFilter.fieldsIn(current.getEnclosedElements())) {
+                if (field.getModifiers().contains(Modifier.STATIC)) {
+                    continue;
+                }
+                String name = field.getSimpleName().toString();
+                if (!names.add(name)) {
+                    return "属性" + name + "重名";
+                }
+                TypeMirror fieldType = field.asType();
+                String suffix = name.substring(0, 1).toUpperCase() + name.substring(1);
+                boolean accessible = !field.getModifiers().contains(Modifier.PRIVATE)
+                        && (field.getModifiers().contains(Modifier.PUBLIC) || elements.getPackageOf(current).equals(packageElement));
+                String getter = findGetter(methods, "get" + suffix);
+                if (null == getter && isBoolean(fieldType)) {
+                    getter = findGetter(methods, "is" + suffix);
+                }
+                String read;
+                if (null != getter) {
+                    read = "entity." + getter + "()";
+                } else if (accessible) {
+                    read = "entity." + name;
+                } else {
+                    return "私有属性" + name + "没有getter";
+                }
+                String castType = fieldType.getKind().isPrimitive()
+                        ? types.boxedClass((javax.lang.model.type.PrimitiveType) fieldType).getQualifiedName().toString()
+                        : types.erasure(fieldType).toString();
+                String write;
+                if (hasSetter(methods, "set" + suffix, fieldType)) {
+                    write = "entity.set" + suffix + "((" + castType + ") value);";
+                } else if (accessible && !field.getModifiers().contains(Modifier.FINAL)) {
+                    write = "entity." + name + " = (" + castType + ") value;";
+                } else if (field.getModifiers().contains(Modifier.FINAL)) {
+                    write = null;
+                } else {
+                    return "私有属性" + name + "没有setter";
+                }
+                properties.add(new Property(name, read, write, columnName(field), types.erasure(fieldType).toString(),
+                        fieldType.getKind().isPrimitive()));
+            }
+        }
+        return null;
+    }
+
+    private TypeElement superclass(TypeElement type) {
+        TypeMirror superclass = type.getSuperclass();
+        if (superclass.getKind() != TypeKind.DECLARED) {
+            return null;
+        }
+        return (TypeElement) ((DeclaredType) superclass).asElement();
+    }
+
+    private String findGetter(List<ExecutableElement> methods, String methodName) {
+        for (ExecutableElement method : methods) {
+            if (method.getSimpleName().contentEquals(methodName) && method.getParameters().isEmpty()
+                    && method.getModifiers().contains(Modifier.PUBLIC) && !method.getModifiers().contains(Modifier.STATIC)
+                    && method.getReturnType().getKind() != TypeKind.VOID) {
+                return methodName;
+            }
+        }
+        return null;
+    }
+
+    private boolean hasSetter(List<ExecutableElement> methods, String methodName, TypeMirror fieldType) {
+        Types types = processingEnv.getTypeUtils();
+        for (ExecutableElement method : methods) {
+            if (method.getSimpleName().contentEquals(methodName) && method.getParameters().size() == 1
+                    && method.getModifiers().contains(Modifier.PUBLIC) && !method.getModifiers().contains(Modifier.STATIC)
+                    && types.isSameType(types.erasure(method.getParameters().get(0).asType()), types.erasure(fieldType))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean isBoolean(TypeMirror type) {
+        return type.getKind() == TypeKind.BOOLEAN || "java.lang.Boolean".equals(type.toString());
+    }
+
+    private String columnName(VariableElement field) {
+        for (AnnotationMirror annotation : field.getAnnotationMirrors()) {
+            if (((TypeElement) annotation.getAnnotationType().asElement()).getQualifiedName().contentEquals(COLUMN_NAME)) {
+                for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> entry : annotation.getElementValues().entrySet()) {
+                    if (entry.getKey().getSimpleName().contentEquals("value")) {
+                        return entry.getValue().getValue().toString();
+                    }
+                }
+                return "";
+            }
+        }
+        return field.getSimpleName().toString();
+    }
+
+    private String source(TypeElement type, String packageName, String simpleName, List<Property> properties) {
+        String entity = processingEnv.getTypeUtils().erasure(type.asType()).toString();
+        StringBuilder source = new StringBuilder();
+        if (!packageName.isEmpty()) {
+            source.append("package ").append(packageName).append(";\n\n");
+        }
+        source.append("/**\n * ").append(type.getSimpleName()).append("的映射器(由EntityMapperProcessor生成，不要修改)\n */\n");
+        source.append("@SuppressWarnings({\"unchecked\", \"rawtypes\"})\n");
+        source.append("public final class ").append(simpleName).append(" implements ").append(MAPPER_INTERFACE)
+                .append("<").append(entity).append("> {\n\n");
+        source.append("    private static final String[] FIELD_NAMES = {");
+        appendStrings(source, properties, true);
+        source.append("};\n\n");
+        source.append("    private static final String[] COLUMN_NAMES = {");
+        appendStrings(source, properties, false);
+        source.append("};\n\n");
+        for (int i = 0; i < properties.size(); i++) {
+            source.append("    private final ").append(CONVERTER).append(" c").append(i).append(" = ").append(CONVERTERS)
+                    .append(".of(").append(properties.get(i).typeName).append(".class);\n\n");
+        }
+        source.append("    @Override\n    public Class<").append(entity).append("> entityClass() {\n        return ")
+                .append(entity).append(".class;\n    }\n\n");
+        source.append("    @Override\n    public String[] fieldNames() {\n        return FIELD_NAMES.clone();\n    }\n\n");
+        source.append("    @Override\n    public String[] columnNames() {\n        return COLUMN_NAMES.clone();\n    }\n\n");
+        source.append("    @Override\n    public ").append(entity).append(" newInstance() {\n        return new ")
+                .append(entity).append("();\n    }\n\n");
+        source.append("    @Override\n    public Object get(").append(entity).append(" entity, int index) {\n");
+        source.append("        switch (index) {\n");
+        for (int i = 0; i < properties.size(); i++) {
+            source.append("            case ").append(i).append(":\n                return ").append(properties.get(i).read).append(";\n");
+        }
+        source.append("            default:\n                throw new IndexOutOfBoundsException(String.valueOf(index));\n");
+        source.append("        }\n    }\n\n");
+        source.append("    @Override\n    public void set(").append(entity).append(" entity, int index, Object value) {\n");
+        source.append("        switch (index) {\n");
+        for (int i = 0; i < properties.size(); i++) {
+            Property property = properties.get(i);
+            source.append("            case ").append(i).append(":\n");
+            if (null != property.write) {
+                source.append("                ").append(property.write).append("\n");
+            }
+            source.append("                return;\n");
+        }
+        source.append("            default:\n                throw new IndexOutOfBoundsException(String.valueOf(index));\n");
+        source.append("        }\n    }\n\n");
+        appendReadRow(source, entity, properties, "weaver.conn.RecordSet recordSet", "", "fromString(recordSet.getString(column))");
+        appendReadRow(source, entity, properties, "java.sql.ResultSet resultSet", " throws java.sql.SQLException",
+                "read(resultSet, column)");
+        source.append("    @Override\n    public void bind(").append(entity).append(" entity, Object[] parameters) {\n");
+        source.append("        Object value;\n");
+        for (int i = 0; i < properties.size(); i++) {
+            source.append("        value = ").append(properties.get(i).read).append(";\n");
+            source.append("        parameters[").append(i).append("] = null == value ? null : c").append(i).append(".toParameter(value);\n");
+        }
+        source.append("    }\n}\n");
+        return source.toString();
+    }
+
+    /**
+     * 生成读取一行的方法
+     * 每个属性单独读取并赋值(跳过规则与反射时一致：skipEmpty时跳过空值，基本类型属性跳过null)
+     */
+    private void appendReadRow(StringBuilder source, String entity, List<Property> properties, String parameter,
+                               String throwsClause, String readExpression) {
+        source.append("    @Override\n    public ").append(entity).append(" readRow(").append(parameter)
+                .append(", int[] columnIndexes, boolean skipEmpty)").append(throwsClause).append(" {\n");
+        source.append("        ").append(entity).append(" entity = new ").append(entity).append("();\n");
+        source.append("        int column;\n        Object value;\n");
+        for (int i = 0; i < properties.size(); i++) {
+            Property property = properties.get(i);
+            if (null == property.write) {
+                continue;
+            }
+            source.append("        if ((column = columnIndexes[").append(i).append("]) > 0) {\n");
+            source.append("            value = c").append(i).append(".").append(readExpression).append(";\n");
+            source.append("            if (").append(property.primitive ? "null != value && " : "")
+                    .append("!(skipEmpty && cn.hutool.core.util.ObjectUtil.isEmpty(value))) {\n");
+            source.append("                ").append(property.write).append("\n");
+            source.append("            }\n        }\n");
+        }
+        source.append("        return entity;\n    }\n\n");
+    }
+
+    private void appendStrings(StringBuilder source, List<Property> properties, boolean fieldName) {
+        for (int i = 0; i < properties.size(); i++) {
+            if (i > 0) {
+                source.append(", ");
+            }
+            String value = fieldName ? properties.get(i).name : properties.get(i).columnName;
+            source.append('"').append(value.replace("\\", "\\\\").replace("\"", "\\\"")).append('"');
+        }
+    }
+
+    private static final class Property {
+
+        private final String name;
+
+        /**
+         * 读取属性的表达式
+         */
+        private final String read;
+
+        /**
+         * 写入属性的语句(final属性且没有setter时为null)
+         */
+        private final String write;
+
+        private final String columnName;
+
+        /**
+         * 属性类型(擦除泛型后)
+         */
+        private final String typeName;
+
+        private final boolean primitive;
+
+        private Property(String name, String read, String write, String columnName, String typeName, boolean primitive) {
+            this.name = name;
+            this.read = read;
+            this.write = write;
+            this.columnName = columnName;
+            this.typeName = typeName;
+            this.primitive = primitive;
+        }
+    }
+}
@@ -0,0 +1,199 @@
+package com.handler.datasources.benchmark;
+
+import com.annotation.TableName;
+
+import java.math.BigDecimal;
+
+/**
+ * 基准测试使用的实体(id加79个字段共80列)
+ * 字段不是private，生成的映射器直接读写字段
+ */
+@TableName("uf_bench")
+public class BenchRow {
+
+    Integer id;
+
+    String s01;
+    String s02;
+    String s03;
+    String s04;
+    String s05;
+    String s06;
+    String s07;
+    String s08;
+    String s09;
+    String s10;
+    String s11;
+    String s12;
+    String s13;
+    String s14;
+    String s15;
+    String s16;
+    String s17;
+    String s18;
+    String s19;
+    String s20;
+    String s21;
+    String s22;
+    String s23;
+    String s24;
+    String s25;
+    String s26;
+    String s27;
+    String s28;
+    String s29;
+    String s30;
+    String s31;
+    String s32;
+    String s33;
+    String s34;
+    String s35;
+    String s36;
+    String s37;
+    String s38;
+    String s39;
+    String s40;
+    String s41;
+    String s42;
+    String s43;
+    String s44;
+    String s45;
+    String s46;
+    String s47;
+    String s48;
+    String s49;
+    String s50;
+    String s51;
+    String s52;
+    String s53;
+    String s54;
+    String s55;
+    String s56;
+    String s57;
+    String s58;
+    String s59;
+    String s60;
+
+    Integer n01;
+    Integer n02;
+    Integer n03;
+    Integer n04;
+    Integer n05;
+    Integer n06;
+    Integer n07;
+    Integer n08;
+    Integer n09;
+    Integer n10;
+
+    BigDecimal d01;
+    BigDecimal d02;
+    BigDecimal d03;
+    BigDecimal d04;
+    BigDecimal d05;
+    BigDecimal d06;
+    BigDecimal d07;
+    BigDecimal d08;
+    BigDecimal d09;
+
+    /**
+     * 按序号填充所有字段(不含id)
+     */
+    void fill(int seq) {
+        s01 = "row" + seq + "-01";
+        s02 = "row" + seq + "-02";
+        s03 = "row" + seq + "-03";
+        s04 = "row" + seq + "-04";
+        s05 = "row" + seq + "-05";
+        s06 = "row" + seq + "-06";
+        s07 = "row" + seq + "-07";
+        s08 = "row" + seq + "-08";
+        s09 = "row" + seq + "-09";
+        s10 = "row" + seq + "-10";
+        s11 = "row" + seq + "-11";
+        s12 = "row" + seq + "-12";
+        s13 = "row" + seq + "-13";
+        s14 = "row" + seq + "-14";
+        s15 = "row" + seq + "-15";
+        s16 = "row" + seq + "-16";
+        s17 = "row" + seq + "-17";
+        s18 = "row" + seq + "-18";
+        s19 = "row" + seq + "-19";
+        s20 = "row" + seq + "-20";
+        s21 = "row" + seq + "-21";
+        s22 = "row" + seq + "-22";
+        s23 = "row" + seq + "-23";
+        s24 = "row" + seq + "-24";
+        s25 = "row" + seq + "-25";
+        s26 = "row" + seq + "-26";
+        s27 = "row" + seq + "-27";
+        s28 = "row" + seq + "-28";
+        s29 = "row" + seq + "-29";
+        s30 = "row" + seq + "-30";
+        s31 = "row" + seq + "-31";
+        s32 = "row" + seq + "-32";
+        s33 = "row" + seq + "-33";
+        s34 = "row" + seq + "-34";
+        s35 = "row" + seq + "-35";
+        s36 = "row" + seq + "-36";
+        s37 = "row" + seq + "-37";
+        s38 = "row" + seq + "-38";
+        s39 = "row" + seq + "-39";
+        s40 = "row" + seq + "-40";
+        s41 = "row" + seq + "-41";
+        s42 = "row" + seq + "-42";
+        s43 = "row" + seq + "-43";
+        s44 = "row" + seq + "-44";
+        s45 = "row" + seq + "-45";
+        s46 = "row" + seq + "-46";
+        s47 = "row" + seq + "-47";
+        s48 = "row" + seq + "-48";
+        s49 = "row" + seq + "-49";
+        s50 = "row" + seq + "-50";
+        s51 = "row" + seq + "-51";
+        s52 = "row" + seq + "-52";
+        s53 = "row" + seq + "-53";
+        s54 = "row" + seq + "-54";
+        s55 = "row" + seq + "-55";
+        s56 = "row" + seq + "-56";
+        s57 = "row" + seq + "-57";
+        s58 = "row" + seq + "-58";
+        s59 = "row" + seq + "-59";
+        s60 = "row" + seq + "-60";
+        n01 = seq + 1;
+        n02 = seq + 2;
+        n03 = seq + 3;
+        n04 = seq + 4;
+        n05 = seq + 5;
+        n06 = seq + 6;
+        n07 = seq + 7;
+        n08 = seq + 8;
+        n09 = seq + 9;
+        n10 = seq + 10;
+        d01 = BigDecimal.valueOf(seq * 100L + 1, 2);
+        d02 = BigDecimal.valueOf(seq * 100L + 2, 2);
+        d03 = BigDecimal.valueOf(seq * 100L + 3, 2);
+        d04 = BigDecimal.valueOf(seq * 100L + 4, 2);
+        d05 = BigDecimal.valueOf(seq * 100L + 5, 2);
+        d06 = BigDecimal.valueOf(seq * 100L + 6, 2);
+        d07 = BigDecimal.valueOf(seq * 100L + 7, 2);
+        d08 = BigDecimal.valueOf(seq * 100L + 8, 2);
+        d09 = BigDecimal.valueOf(seq * 100L + 9, 2);
+    }
+
+    /**
+     * @return 建表语句
+     */
+    static String createTable(String tableName) {
+        StringBuilder sql = new StringBuilder("create table ").append(tableName).append("(id int primary key");
+        for (int i = 1; i <= 60; i++) {
+            sql.append(String.format(", s%02d varchar(100)", i));
+        }
+        for (int i = 1; i <= 10; i++) {
+            sql.append(String.format(", n%02d int", i));
+        }
+        for (int i = 1; i <= 9; i++) {
+            sql.append(String.format(", d%02d decimal(18,2)", i));
+        }
+        return sql.append(")").toString();
+    }
+}
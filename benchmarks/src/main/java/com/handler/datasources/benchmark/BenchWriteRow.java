@@ -0,0 +1,10 @@
+package com.handler.datasources.benchmark;
+
+import com.annotation.TableName;
+
+/**
+ * 写入基准测试使用的实体(与BenchRow相同的80列，写入单独的表)
+ */
+@TableName("uf_bench_w")
+public class BenchWriteRow extends BenchRow {
+}
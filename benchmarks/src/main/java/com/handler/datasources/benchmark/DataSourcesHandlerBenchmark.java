@@ -0,0 +1,107 @@
+package com.handler.datasources.benchmark;
+
+import com.handler.datasources.BatchResult;
+import com.handler.datasources.DataSourcesHandler;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import weaver.conn.ConnectionPool;
+import weaver.conn.RecordSet;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * DataSourcesHandler基准测试
+ * RecordSet替身连接H2内存库，每次调用处理ROWS行80列的数据；
+ * 按行计算操作数(OperationsPerInvocation)，因此结果中的ops/s为每秒处理的行数，
+ * 使用-prof gc时gc.alloc.rate.norm为每行分配的字节数
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class DataSourcesHandlerBenchmark {
+
+    static final int ROWS = 10000;
+
+    private DataSourcesHandler handler;
+
+    private List<BenchRow> rows;
+
+    private List<BenchWriteRow> writeRows;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        ConnectionPool.configure("jdbc:h2:mem:bench;DB_CLOSE_DELAY=-1", "sa", "", "mysql");
+        execute(BenchRow.createTable("uf_bench"));
+        execute(BenchRow.createTable("uf_bench_w"));
+        handler = new DataSourcesHandler();
+        rows = new ArrayList<>(ROWS);
+        writeRows = new ArrayList<>(ROWS);
+        for (int i = 1; i <= ROWS; i++) {
+            BenchRow row = new BenchRow();
+            row.id = i;
+            row.fill(i);
+            rows.add(row);
+            BenchWriteRow writeRow = new BenchWriteRow();
+            writeRow.id = i;
+            writeRow.fill(i);
+            writeRows.add(writeRow);
+        }
+        handler.batchSave(rows, 1000);
+    }
+
+    /**
+     * 每次写入前清空写入表
+     */
+    @Setup(Level.Invocation)
+    public void clearWriteTable() {
+        execute("truncate table uf_bench_w");
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public List<BenchRow> selectList() {
+        return handler.selectList(new BenchRow());
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public List<BenchRow> customSelectList() {
+        return handler.customSelectList(BenchRow.class, "select * from uf_bench");
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public BatchResult batchSave() {
+        return handler.batchSave(writeRows, 1000);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void updateById(Blackhole blackhole) {
+        for (BenchRow row : rows) {
+            blackhole.consume(handler.updateById(row));
+        }
+    }
+
+    private static void execute(String sql) {
+        if (!new RecordSet().executeUpdate(sql)) {
+            throw new IllegalStateException("执行失败[" + sql + "]");
+        }
+    }
+}
@@ -0,0 +1,156 @@
+package com.handler.datasources;
+
+import com.annotation.ChangeTracking;
+import com.annotation.TableName;
+import com.engine.core.exception.ECException;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import weaver.conn.ConnectionPool;
+import weaver.conn.RecordSet;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * 增量拉取(selectChangedSince)测试
+ */
+public class ChangeTrackingTest {
+
+    @BeforeClass
+    public static void setUp() {
+        ConnectionPool.configure("jdbc:h2:mem:change_tracking;DB_CLOSE_DELAY=-1", "sa", "", "mysql");
+        assertTrue(new RecordSet().executeUpdate("create table uf_changed(id int primary key, name varchar(50), "
+                + "modedatamodifydate varchar(10), modedatamodifytime varchar(8), modedatacreatedate varchar(10), modedatacreatetime varchar(8))"));
+        assertTrue(new RecordSet().executeUpdate("insert into uf_changed values "
+                + "(1, 'a', '2024-01-02', '08:00:00', '2024-01-01', '07:00:00'), "
+                + "(2, 'b', null, null, '2024-01-01', '09:00:00'), "
+                + "(3, 'c', '2024-01-02', '08:00:00', '2024-01-01', '07:00:00'), "
+                + "(4, 'd', '2024-01-01', '12:00:00', '2024-01-01', '07:00:00'), "
+                + "(5, 'e', null, null, null, null), "
+                + "(6, 'f', '2024-01-03', null, '2024-01-03', null)"));
+        assertTrue(new RecordSet().executeUpdate("create table uf_appended(id int primary key, name varchar(50))"));
+        assertTrue(new RecordSet().executeUpdate("insert into uf_appended values (1, 'x'), (2, 'y'), (3, 'z')"));
+    }
+
+    @Test
+    public void walksByDateTimeAndId() {
+        DataSourcesHandler handler = new DataSourcesHandler();
+        ChangeBatch<ChangedRow> first = handler.selectChangedSince(ChangedRow.class, null, 2);
+        assertEquals(Arrays.asList("b", "d"), names(first.getRecords()));
+        assertEquals("2024-01-01|12:00:00|4", first.getWatermark());
+        assertTrue(first.hasMore());
+
+        ChangeBatch<ChangedRow> second = handler.selectChangedSince(ChangedRow.class, first.getWatermark(), 2);
+        assertEquals(Arrays.asList("a", "c"), names(second.getRecords()));
+        assertEquals("2024-01-02|08:00:00|3", second.getWatermark());
+        assertFalse(second.hasMore());
+
+        ChangeBatch<ChangedRow> empty = handler.selectChangedSince(ChangedRow.class, second.getWatermark(), 2);
+        assertTrue(empty.getRecords().isEmpty());
+        assertEquals(second.getWatermark(), empty.getWatermark());
+        assertFalse(empty.hasMore());
+    }
+
+    @Test
+    public void tiesOnDateAndTimeAreBrokenById() {
+        DataSourcesHandler handler = new DataSourcesHandler();
+        ChangeBatch<ChangedRow> batch = handler.selectChangedSince(ChangedRow.class, "2024-01-02|08:00:00|1", 10);
+        assertEquals(Collections.singletonList("c"), names(batch.getRecords()));
+        assertEquals(Arrays.asList("a", "c"), names(handler.selectChangedSince(ChangedRow.class, "2024-01-02|07:59:59|9", 10).getRecords()));
+    }
+
+    @Test
+    public void modifiedRowIsPulledAgain() {
+        DataSourcesHandler handler = new DataSourcesHandler();
+        assertTrue(new RecordSet().executeUpdate("create table uf_changed_again as select * from uf_changed"));
+        String watermark = handler.selectChangedSince(ChangedAgainRow.class, null, 10).getWatermark();
+        assertEquals("2024-01-02|08:00:00|3", watermark);
+        assertTrue(new RecordSet().executeUpdate("update uf_changed_again set name = 'b2', modedatamodifydate = '2024-01-03', "
+                + "modedatamodifytime = '10:00:00' where id = 2"));
+        ChangeBatch<ChangedAgainRow> batch = handler.selectChangedSince(ChangedAgainRow.class, watermark, 10);
+        assertEquals(Collections.singletonList("b2"), names(batch.getRecords()));
+        assertEquals("2024-01-03|10:00:00|2", batch.getWatermark());
+    }
+
+    @Test
+    public void untrackedEntityUsesIdWatermark() {
+        DataSourcesHandler handler = new DataSourcesHandler();
+        ChangeBatch<AppendedRow> first = handler.selectChangedSince(AppendedRow.class, null, 2);
+        assertEquals(Arrays.asList("x", "y"), names(first.getRecords()));
+        assertEquals("2", first.getWatermark());
+        ChangeBatch<AppendedRow> second = handler.selectChangedSince(AppendedRow.class, first.getWatermark(), 2);
+        assertEquals(Collections.singletonList("z"), names(second.getRecords()));
+        assertEquals("3", second.getWatermark());
+    }
+
+    @Test
+    public void malformedWatermarkIsRejected() {
+        DataSourcesHandler handler = new DataSourcesHandler();
+        for (String watermark : Arrays.asList("12", "2024-01-02|08:00:00|x")) {
+            try {
+                handler.selectChangedSince(ChangedRow.class, watermark, 2);
+                fail("水位[" + watermark + "]格式不正确时应抛出异常");
+            } catch (ECException expected) {
+                // 格式校验在查询之前
+            }
+        }
+        try {
+            handler.selectChangedSince(AppendedRow.class, "2024-01-02|08:00:00|1", 2);
+            fail("没有ChangeTracking注解时水位只能是id");
+        } catch (ECException expected) {
+            // 格式校验在查询之前
+        }
+    }
+
+    private static List<String> names(List<? extends NamedRow> rows) {
+        List<String> names = new ArrayList<>();
+        for (NamedRow row : rows) {
+            names.add(row.getName());
+        }
+        return names;
+    }
+
+    public static class NamedRow {
+
+        private Integer id;
+
+        private String name;
+
+        public Integer getId() {
+            return id;
+        }
+
+        public void setId(Integer id) {
+            this.id = id;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+    }
+
+    @TableName("uf_changed")
+    @ChangeTracking
+    public static class ChangedRow extends NamedRow {
+    }
+
+    @TableName("uf_changed_again")
+    @ChangeTracking
+    public static class ChangedAgainRow extends NamedRow {
+    }
+
+    @TableName("uf_appended")
+    public static class AppendedRow extends NamedRow {
+    }
+}
@@ -0,0 +1,148 @@
+package com.handler.datasources;
+
+import com.annotation.TableName;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+/**
+ * 列值转换器测试
+ */
+public class ColumnConvertersTest {
+
+    @Test
+    public void formatThenParseRoundTrips() {
+        List<Object> values = Arrays.asList(123456789012L, 42, (short) 7, (byte) -3, 1.25d, 2.5f, new BigDecimal("12345.67"),
+                new BigInteger("123456789012345678901234567890"), Boolean.TRUE, 'x', "text",
+                new Date(1700000000000L), Timestamp.valueOf("2024-02-29 13:45:10"), LocalDateTime.of(2024, 2, 29, 13, 45, 10),
+                LocalDate.of(2024, 2, 29), java.sql.Date.valueOf("2024-02-29"));
+        for (Object value : values) {
+            ColumnConverter<Object> converter = ColumnConverters.of(value.getClass());
+            assertEquals(value.getClass().getName(), value, converter.fromString(converter.format(value)));
+        }
+    }
+
+    @Test
+    public void parsesTextStoredValues() {
+        assertEquals(1234567, ColumnConverters.of(int.class).fromString(" 1,234,567 "));
+        assertEquals(new BigDecimal("1234.5"), ColumnConverters.of(BigDecimal.class).fromString("1,234.5"));
+        assertEquals(Boolean.TRUE, ColumnConverters.of(Boolean.class).fromString("Y"));
+        assertEquals(Boolean.FALSE, ColumnConverters.of(boolean.class).fromString("0"));
+        assertEquals(Timestamp.valueOf("2024-01-02 03:04:05.678"),
+                new Timestamp(((Date) ColumnConverters.of(Date.class).fromString("2024-01-02 03:04:05.678")).getTime()));
+        assertEquals(LocalDate.of(2024, 1, 2), ColumnConverters.of(LocalDate.class).fromString("2024-01-02"));
+        assertNull(ColumnConverters.of(Integer.class).fromString(""));
+        assertNull(ColumnConverters.of(Long.class).fromString("null"));
+        assertEquals("", ColumnConverters.of(String.class).fromString(""));
+    }
+
+    @Test
+    public void bindsDatesAsJdbcTypes() {
+        Date date = new Date(1700000000000L);
+        assertEquals(new Timestamp(date.getTime()), ColumnConverters.of(Date.class).toParameter(date));
+        assertEquals(java.sql.Date.valueOf("2024-02-29"), ColumnConverters.of(LocalDate.class).toParameter(LocalDate.of(2024, 2, 29)));
+        assertEquals(Timestamp.valueOf("2024-02-29 13:45:10"),
+                ColumnConverters.of(LocalDateTime.class).toParameter(LocalDateTime.of(2024, 2, 29, 13, 45, 10)));
+    }
+
+    @Test
+    public void unregisteredTypesPassThrough() {
+        assertSame(Color.RED, ColumnConverters.of(Color.class).toParameter(Color.RED));
+        assertEquals(Color.RED, ColumnConverters.of(Color.class).fromString("RED"));
+        byte[] bytes = {1, 2, 3};
+        assertSame(bytes, ColumnConverters.of(byte[].class).toParameter(bytes));
+        BigInteger big = BigInteger.TEN;
+        assertSame(big, ColumnConverters.of(BigInteger.class).toParameter(big));
+    }
+
+    @Test
+    public void readsNativeColumnsAndFallsBackToText() throws Exception {
+        try (Connection connection = DriverManager.getConnection("jdbc:h2:mem:converters", "sa", "");
+             Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("select 42, '1,234', cast('2024-01-02 03:04:05' as timestamp),"
+                     + " cast(null as int), 12.50")) {
+            resultSet.next();
+            assertEquals(42, ColumnConverters.of(Integer.class).read(resultSet, 1));
+            assertEquals(1234L, ColumnConverters.of(Long.class).read(resultSet, 2));
+            assertEquals(LocalDateTime.of(2024, 1, 2, 3, 4, 5), ColumnConverters.of(LocalDateTime.class).read(resultSet, 3));
+            assertNull(ColumnConverters.of(int.class).read(resultSet, 4));
+            assertEquals(new BigDecimal("12.50"), ColumnConverters.of(BigDecimal.class).read(resultSet, 5));
+        }
+    }
+
+    @Test
+    public void registeredConverterIsUsedByEntityFields() {
+        ColumnConverters.register(Money.class, new ColumnConverter<Money>() {
+            @Override
+            public Money fromString(String value) {
+                return null == value || value.isEmpty() ? null : new Money(Long.parseLong(value));
+            }
+
+            @Override
+            public Object toParameter(Money value) {
+                return value.cents;
+            }
+        });
+        EntityField field = EntityMetadata.of(Priced.class).getFieldByColumn("price");
+        Money parsed = (Money) field.parse("1999");
+        assertEquals(1999L, parsed.cents);
+        assertEquals(1999L, field.toParameter(parsed));
+    }
+
+    public enum Color {
+        RED;
+
+        @Override
+        public String toString() {
+            return "red color";
+        }
+    }
+
+    public static final class Money {
+
+        private final long cents;
+
+        Money(long cents) {
+            this.cents = cents;
+        }
+    }
+
+    @TableName("uf_priced")
+    public static class Priced {
+
+        private Integer id;
+
+        private Money price;
+
+        public Integer getId() {
+            return id;
+        }
+
+        public void setId(Integer id) {
+            this.id = id;
+        }
+
+        public Money getPrice() {
+            return price;
+        }
+
+        public void setPrice(Money price) {
+            this.price = price;
+        }
+    }
+}
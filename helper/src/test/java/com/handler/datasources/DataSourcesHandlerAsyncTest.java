@@ -0,0 +1,41 @@
+package com.handler.datasources;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Supplier;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * 异步及并行查询测试
+ */
+public class DataSourcesHandlerAsyncTest {
+
+    /**
+     * 线程池的线程全部在执行外层任务时，内层的parallel在当前线程中执行而不是排队等待
+     */
+    @Test(timeout = 10000)
+    public void nestedParallelDoesNotDeadlock() {
+        ExecutorService pool = Executors.newFixedThreadPool(2);
+        try {
+            DataSourcesHandler handler = new DataSourcesHandler();
+            handler.setExecutor(pool);
+            List<Supplier<Integer>> outer = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                int base = i * 10;
+                outer.add(() -> {
+                    List<Integer> inner = handler.parallel(Arrays.<Supplier<Integer>>asList(() -> base + 1, () -> base + 2));
+                    return inner.get(0) + inner.get(1);
+                });
+            }
+            assertEquals(Arrays.asList(3, 23, 43, 63), handler.parallel(outer));
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,196 @@
+package com.handler.datasources;
+
+import com.annotation.ColumnName;
+import com.annotation.TableName;
+import com.util.ModeServiceUtil;
+import org.junit.Test;
+import weaver.formmode.setup.ModeRightInfo;
+import weaver.hrm.User;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 批量保存建模数据测试
+ * 使用记录调用的保存接口及建权接口，不连接数据库
+ */
+public class DataSourcesHandlerBatchInsertTest {
+
+    private static final int FORM_MODE_ID = 12;
+
+    @Test
+    public void savesThroughServiceThenBuildsRightsOnce() {
+        StubServiceUtils serviceUtils = new StubServiceUtils();
+        List<Integer> rightBillIds = Collections.synchronizedList(new ArrayList<>());
+        AtomicInteger rightInfos = new AtomicInteger();
+        AtomicInteger savedBeforeRights = new AtomicInteger(-1);
+        DataSourcesHandler handler = new DataSourcesHandler();
+        handler.setInsertParallelism(3);
+        handler.setModeServiceUtil(serviceUtils::create);
+        handler.setModeRightInfo(() -> {
+            rightInfos.incrementAndGet();
+            return new ModeRightInfo() {
+                @Override
+                public void editModeDataShare(int userId, int formModeId, int billId) {
+                    assertEquals(7, userId);
+                    assertEquals(FORM_MODE_ID, formModeId);
+                    savedBeforeRights.compareAndSet(-1, serviceUtils.calls.get());
+                    rightBillIds.add(billId);
+                }
+            };
+        });
+
+        List<InsertRow> rows = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            rows.add(new InsertRow(i == 4 ? "fail" : i == 9 ? "noid" : "row" + i, i));
+        }
+        ModeInsertResult result = handler.batchInsert(rows, FORM_MODE_ID, new User(7));
+
+        assertEquals(20, serviceUtils.calls.get());
+        assertEquals(18, result.getSuccessCount());
+        assertEquals(new HashSet<>(Arrays.asList(4, 9)), result.getErrors().keySet());
+        assertEquals("保存接口返回值[]不是数据ID", result.getErrors().get(9));
+        for (int i = 0; i < rows.size(); i++) {
+            Integer billId = result.getBillIds().get(i);
+            if (i == 4 || i == 9) {
+                assertNull(billId);
+            } else {
+                assertEquals(serviceUtils.billIds.get("row" + i), billId);
+            }
+        }
+        // 保存时不建权，全部保存完成后只用一个ModeRightInfo统一建权
+        assertFalse(serviceUtils.rightRequested.get());
+        assertEquals(20, savedBeforeRights.get());
+        assertEquals(1, rightInfos.get());
+        List<Integer> expected = new ArrayList<>();
+        for (Integer billId : result.getBillIds()) {
+            if (null != billId) {
+                expected.add(billId);
+            }
+        }
+        assertEquals(expected, rightBillIds);
+        // 每个保存线程使用各自的保存接口
+        assertTrue(serviceUtils.created.get() <= 3);
+        for (Set<Thread> threads : serviceUtils.threads.values()) {
+            assertEquals(1, threads.size());
+        }
+    }
+
+    @Test
+    public void savesSameDataAsInsert() {
+        StubServiceUtils serviceUtils = new StubServiceUtils();
+        DataSourcesHandler handler = new DataSourcesHandler();
+        handler.setModeServiceUtil(serviceUtils::create);
+        InsertRow row = new InsertRow("same", 3);
+        handler.insert(row, FORM_MODE_ID, new User(7));
+        handler.batchInsert(Collections.singletonList(row), FORM_MODE_ID, new User(7));
+
+        assertEquals(2, serviceUtils.saveData.size());
+        Map<String, String> expected = new HashMap<>();
+        expected.put("name", "same");
+        expected.put("amount_col", "3");
+        assertEquals(expected, serviceUtils.saveData.get(0));
+        assertEquals(expected, serviceUtils.saveData.get(1));
+    }
+
+    /**
+     * 记录调用的保存接口：name为fail时抛出异常，为noid时返回空字符串，否则返回新的数据ID
+     */
+    private static final class StubServiceUtils {
+
+        private final AtomicInteger created = new AtomicInteger();
+
+        private final AtomicInteger calls = new AtomicInteger();
+
+        private final AtomicInteger nextBillId = new AtomicInteger(100);
+
+        private final AtomicBoolean rightRequested = new AtomicBoolean();
+
+        private final Map<String, Integer> billIds = new ConcurrentHashMap<>();
+
+        private final Map<ModeServiceUtil, Set<Thread>> threads = new ConcurrentHashMap<>();
+
+        private final List<Map<String, String>> saveData = Collections.synchronizedList(new ArrayList<>());
+
+        ModeServiceUtil create() {
+            created.incrementAndGet();
+            return new ModeServiceUtil() {
+                @Override
+                public String addMoidfyModeData(int userId, int formModeId, int billId, boolean isRight,
+                                                Map<String, String> mainData, Object detailData) {
+                    threads.computeIfAbsent(this, key -> ConcurrentHashMap.newKeySet()).add(Thread.currentThread());
+                    calls.incrementAndGet();
+                    rightRequested.compareAndSet(false, isRight);
+                    saveData.add(mainData);
+                    String name = mainData.get("name");
+                    if ("fail".equals(name)) {
+                        throw new IllegalStateException("保存失败");
+                    }
+                    if ("noid".equals(name)) {
+                        return "";
+                    }
+                    int id = nextBillId.incrementAndGet();
+                    billIds.put(name, id);
+                    return String.valueOf(id);
+                }
+            };
+        }
+    }
+
+    @TableName("uf_batch_insert")
+    public static class InsertRow {
+
+        private Integer id;
+
+        private String name;
+
+        @ColumnName("amount_col")
+        private Integer amount;
+
+        public InsertRow() {
+        }
+
+        InsertRow(String name, Integer amount) {
+            this.name = name;
+            this.amount = amount;
+        }
+
+        public Integer getId() {
+            return id;
+        }
+
+        public void setId(Integer id) {
+            this.id = id;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+
+        public Integer getAmount() {
+            return amount;
+        }
+
+        public void setAmount(Integer amount) {
+            this.amount = amount;
+        }
+    }
+}
@@ -0,0 +1,274 @@
+package com.handler.datasources;
+
+import com.annotation.EntityCache;
+import com.annotation.TableName;
+import com.util.ModeServiceUtil;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import weaver.conn.ConnectionPool;
+import weaver.conn.RecordSet;
+import weaver.formmode.setup.ModeRightInfo;
+import weaver.hrm.User;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 多线程压力测试
+ * 所有线程共用一个DataSourcesHandler，通过RecordSet替身连接H2内存库，
+ * 每个线程只读写自己的数据，检查读到的始终是本线程最后写入的值
+ */
+public class DataSourcesHandlerConcurrencyTest {
+
+    private static final int THREADS = 32;
+
+    private static final int ITERATIONS = 50;
+
+    private static final int MODE_ROWS = 20;
+
+    private static final DataSourcesHandler HANDLER = new DataSourcesHandler();
+
+    @BeforeClass
+    public static void setUp() {
+        ConnectionPool.configure("jdbc:h2:mem:concurrency;DB_CLOSE_DELAY=-1", "sa", "", "mysql");
+        execute("create table uf_stress(id int primary key, owner int, name varchar(50), amount int)");
+        execute("create table uf_stress_reflect(id int primary key, owner int, name varchar(50), amount int)");
+        execute("create table uf_stress_mode(id int primary key, owner int, name varchar(50), formmodeid int)");
+        execute("create sequence uf_stress_mode_seq");
+    }
+
+    /**
+     * 有编译时生成的映射器的实体
+     */
+    @Test
+    public void sharedHandlerReadsOwnWrites() throws Exception {
+        assertNotNull(EntityMetadata.of(StressRow.class).getMapper());
+        readsOwnWrites(StressRow.class, "uf_stress");
+    }
+
+    /**
+     * 没有映射器、使用反射读写的实体
+     */
+    @Test
+    public void sharedHandlerReadsOwnWritesByReflection() throws Exception {
+        assertNull(EntityMetadata.of(ReflectedStressRow.class).getMapper());
+        readsOwnWrites(ReflectedStressRow.class, "uf_stress_reflect");
+    }
+
+    private static <T extends StressRow> void readsOwnWrites(Class<T> clazz, String tableName) throws Exception {
+        List<Callable<Void>> tasks = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            int owner = t;
+            tasks.add(() -> {
+                for (int i = 0; i < ITERATIONS; i++) {
+                    long id = owner * 1000L + i + 1;
+                    T row = newRow(clazz);
+                    row.setId((int) id);
+                    row.setOwner(owner);
+                    row.setName("row-" + id);
+                    row.setAmount(i);
+                    assertTrue(HANDLER.save(row));
+
+                    T saved = HANDLER.selectById(id, clazz);
+                    assertNotNull(saved);
+                    assertEquals("row-" + id, saved.getName());
+                    assertEquals(Integer.valueOf(i), saved.getAmount());
+
+                    T update = newRow(clazz);
+                    update.setId((int) id);
+                    update.setName("updated-" + id);
+                    assertTrue(HANDLER.updateById(update));
+                    assertEquals("updated-" + id, HANDLER.selectById(id, clazz).getName());
+
+                    T condition = newRow(clazz);
+                    condition.setOwner(owner);
+                    assertEquals(i + 1, HANDLER.selectList(condition).size());
+                    assertEquals(i + 1, HANDLER.count(condition));
+                }
+                return null;
+            });
+        }
+        runAll(tasks);
+
+        assertEquals(THREADS * ITERATIONS, HANDLER.count(newRow(clazz)));
+        List<T> rows = HANDLER.customSelectList(clazz, "select * from " + tableName + " where name not like ?", "updated-%");
+        assertTrue(rows.isEmpty());
+    }
+
+    private static <T> T newRow(Class<T> clazz) {
+        return clazz.cast(EntityMetadata.of(clazz).newInstance());
+    }
+
+    @Test
+    public void sharedHandlerBatchInsert() throws Exception {
+        AtomicInteger rights = new AtomicInteger();
+        Set<ModeRightInfo> rightInfos = Collections.synchronizedSet(Collections.newSetFromMap(new IdentityHashMap<>()));
+        HANDLER.setModeServiceUtil(() -> new ModeServiceUtil() {
+            @Override
+            public String addMoidfyModeData(int userId, int formModeId, int billId, boolean isRight, Map<String, String> mainData,
+                                            Object detailData) {
+                RecordSet recordSet = new RecordSet();
+                recordSet.executeQuery("select next value for uf_stress_mode_seq");
+                recordSet.next();
+                String id = recordSet.getString(1);
+                boolean saved = recordSet.executeUpdate("insert into uf_stress_mode(id, owner, name, formmodeid) values (?, ?, ?, ?)",
+                        id, mainData.get("owner"), mainData.get("name"), formModeId);
+                return saved ? id : "";
+            }
+        });
+        HANDLER.setModeRightInfo(() -> new ModeRightInfo() {
+            @Override
+            public void editModeDataShare(int userId, int formModeId, int billId) {
+                rights.incrementAndGet();
+                rightInfos.add(this);
+            }
+        });
+        List<Callable<Void>> tasks = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            int owner = t;
+            tasks.add(() -> {
+                List<StressModeRow> rows = new ArrayList<>();
+                for (int i = 0; i < MODE_ROWS; i++) {
+                    StressModeRow row = new StressModeRow();
+                    row.setOwner(owner);
+                    row.setName("mode-" + owner + "-" + i);
+                    rows.add(row);
+                }
+                ModeInsertResult result = HANDLER.batchInsert(rows, 7, new User(1));
+                assertFalse(result.toString(), result.hasErrors());
+                assertEquals(MODE_ROWS, result.getSuccessCount());
+                for (int i = 0; i < MODE_ROWS; i++) {
+                    StressModeRow saved = HANDLER.selectById(result.getBillIds().get(i).longValue(), StressModeRow.class);
+                    assertEquals("mode-" + owner + "-" + i, saved.getName());
+                }
+                return null;
+            });
+        }
+        runAll(tasks);
+
+        assertEquals(THREADS * MODE_ROWS, rights.get());
+        assertEquals(THREADS * MODE_ROWS, HANDLER.count(new StressModeRow()));
+        assertEquals(THREADS, rightInfos.size());
+    }
+
+    /**
+     * 同时启动所有任务，任何一个任务失败时抛出其异常
+     */
+    private static void runAll(List<Callable<Void>> tasks) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(tasks.size());
+        try {
+            for (Future<Void> future : pool.invokeAll(tasks)) {
+                future.get();
+            }
+        } finally {
+            pool.shutdown();
+            assertTrue(pool.awaitTermination(1, TimeUnit.MINUTES));
+        }
+    }
+
+    private static void execute(String sql) {
+        assertTrue(sql, new RecordSet().executeUpdate(sql));
+    }
+
+    @TableName("uf_stress")
+    @EntityCache
+    public static class StressRow {
+
+        private Integer id;
+
+        private Integer owner;
+
+        private String name;
+
+        private Integer amount;
+
+        public Integer getId() {
+            return id;
+        }
+
+        public void setId(Integer id) {
+            this.id = id;
+        }
+
+        public Integer getOwner() {
+            return owner;
+        }
+
+        public void setOwner(Integer owner) {
+            this.owner = owner;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+
+        public Integer getAmount() {
+            return amount;
+        }
+
+        public void setAmount(Integer amount) {
+            this.amount = amount;
+        }
+    }
+
+    /**
+     * 私有类不生成映射器，运行时使用反射
+     */
+    @TableName("uf_stress_reflect")
+    private static class ReflectedStressRow extends StressRow {
+    }
+
+    @TableName("uf_stress_mode")
+    public static class StressModeRow {
+
+        private Integer id;
+
+        private Integer owner;
+
+        private String name;
+
+        public Integer getId() {
+            return id;
+        }
+
+        public void setId(Integer id) {
+            this.id = id;
+        }
+
+        public Integer getOwner() {
+            return owner;
+        }
+
+        public void setOwner(Integer owner) {
+            this.owner = owner;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+    }
+}
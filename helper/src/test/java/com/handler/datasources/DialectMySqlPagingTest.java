@@ -0,0 +1,19 @@
+package com.handler.datasources;
+
+import org.junit.BeforeClass;
+
+/**
+ * 分页方言测试(mysql，H2的MySQL兼容模式)
+ */
+public class DialectMySqlPagingTest extends DialectPagingTestBase {
+
+    @BeforeClass
+    public static void setUp() {
+        setUpDatabase("MySQL", "mysql");
+    }
+
+    @Override
+    Dialect expectedDialect() {
+        return Dialect.MYSQL;
+    }
+}
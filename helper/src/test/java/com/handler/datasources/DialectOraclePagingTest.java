@@ -0,0 +1,19 @@
+package com.handler.datasources;
+
+import org.junit.BeforeClass;
+
+/**
+ * 分页方言测试(oracle，H2的Oracle兼容模式)
+ */
+public class DialectOraclePagingTest extends DialectPagingTestBase {
+
+    @BeforeClass
+    public static void setUp() {
+        setUpDatabase("Oracle", "oracle");
+    }
+
+    @Override
+    Dialect expectedDialect() {
+        return Dialect.ORACLE;
+    }
+}
@@ -0,0 +1,161 @@
+package com.handler.datasources;
+
+import com.annotation.TableName;
+import com.engine.core.exception.ECException;
+import org.junit.Test;
+import weaver.conn.ConnectionPool;
+import weaver.conn.RecordSet;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * 分页方言测试
+ * H2以各数据库的兼容模式运行，分页、selectOne、exists及游标分页按该数据库的方言生成sql后实际执行；
+ * 方言在第一次使用时确定，每种数据库一个子类(每个测试类在单独的JVM中运行)
+ */
+public abstract class DialectPagingTestBase {
+
+    private static final int ROWS = 7;
+
+    /**
+     * 连接兼容模式的H2并准备数据
+     *
+     * @param mode   H2兼容模式
+     * @param dbType RecordSet.getDBType()的返回值
+     */
+    static void setUpDatabase(String mode, String dbType) {
+        ConnectionPool.configure("jdbc:h2:mem:paging_" + dbType + ";MODE=" + mode + ";DB_CLOSE_DELAY=-1", "sa", "", dbType);
+        execute("create table uf_page(id int primary key, name varchar(50), grp int)");
+        for (int id = 1; id <= ROWS; id++) {
+            execute("insert into uf_page(id, name, grp) values (" + id + ", 'row" + id + "', " + (id % 2) + ")");
+        }
+    }
+
+    /**
+     * @return 该数据库应使用的方言
+     */
+    abstract Dialect expectedDialect();
+
+    @Test
+    public void usesExpectedDialect() {
+        assertEquals(expectedDialect(), Dialect.current());
+    }
+
+    @Test
+    public void selectPageCoversEveryRowOnce() {
+        DataSourcesHandler handler = new DataSourcesHandler();
+        List<Integer> ids = new ArrayList<>();
+        for (long offset = 0; offset < ROWS; offset += 3) {
+            List<PageRow> page = handler.selectPage(new PageRow(), offset, 3L);
+            assertEquals(Math.min(3, ROWS - offset), page.size());
+            for (PageRow row : page) {
+                ids.add(row.getId());
+            }
+        }
+        assertEquals(ROWS, ids.size());
+        assertEquals(ROWS, new HashSet<>(ids).size());
+        assertTrue(handler.selectPage(new PageRow(), (long) ROWS, 3L).isEmpty());
+    }
+
+    @Test
+    public void selectPageWithConditionAndFields() {
+        DataSourcesHandler handler = new DataSourcesHandler();
+        PageRow condition = new PageRow();
+        condition.setGrp(1);
+        Set<Integer> ids = new HashSet<>();
+        for (PageRow row : handler.selectPage(condition, 1L, 2L, "id")) {
+            assertNull(row.getName());
+            ids.add(row.getId());
+        }
+        assertEquals(2, ids.size());
+        assertTrue(Arrays.asList(1, 3, 5, 7).containsAll(ids));
+    }
+
+    @Test
+    public void selectOneAndExists() {
+        DataSourcesHandler handler = new DataSourcesHandler();
+        PageRow condition = new PageRow();
+        condition.setName("row5");
+        assertEquals(Integer.valueOf(5), handler.selectOne(condition).getId());
+        assertTrue(handler.exists(condition));
+
+        condition.setName("missing");
+        assertNull(handler.selectOne(condition));
+        assertFalse(handler.exists(condition));
+
+        PageRow many = new PageRow();
+        many.setGrp(0);
+        try {
+            handler.selectOne(many);
+            fail("多条数据时应抛出异常");
+        } catch (ECException expected) {
+            // 只查询两行即可判断
+        }
+    }
+
+    @Test
+    public void selectPageByKeyWalksAllPages() {
+        DataSourcesHandler handler = new DataSourcesHandler();
+        List<Integer> ids = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            KeysetPage<PageRow> page = handler.selectPageByKey(new PageRow(), cursor, 3);
+            for (PageRow row : page.getRecords()) {
+                ids.add(row.getId());
+            }
+            cursor = page.getNextCursor();
+            pages++;
+        } while (null != cursor);
+        assertEquals(3, pages);
+        assertEquals(Arrays.asList(1, 2, 3, 4, 5, 6, 7), ids);
+    }
+
+    private static void execute(String sql) {
+        assertTrue(sql, new RecordSet().executeUpdate(sql));
+    }
+
+    @TableName("uf_page")
+    public static class PageRow {
+
+        private Integer id;
+
+        private String name;
+
+        private Integer grp;
+
+        public Integer getId() {
+            return id;
+        }
+
+        public void setId(Integer id) {
+            this.id = id;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+
+        public Integer getGrp() {
+            return grp;
+        }
+
+        public void setGrp(Integer grp) {
+            this.grp = grp;
+        }
+    }
+}
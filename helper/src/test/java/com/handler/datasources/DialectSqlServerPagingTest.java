@@ -0,0 +1,19 @@
+package com.handler.datasources;
+
+import org.junit.BeforeClass;
+
+/**
+ * 分页方言测试(sqlserver，H2的MSSQLServer兼容模式)
+ */
+public class DialectSqlServerPagingTest extends DialectPagingTestBase {
+
+    @BeforeClass
+    public static void setUp() {
+        setUpDatabase("MSSQLServer", "sqlserver");
+    }
+
+    @Override
+    Dialect expectedDialect() {
+        return Dialect.SQLSERVER;
+    }
+}
@@ -0,0 +1,141 @@
+package com.handler.datasources;
+
+import com.annotation.EntityCache;
+import com.annotation.TableName;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import weaver.conn.ConnectionPool;
+import weaver.conn.RecordSet;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 实体缓存测试
+ */
+public class EntityReadCacheTest {
+
+    @BeforeClass
+    public static void setUp() {
+        ConnectionPool.configure("jdbc:h2:mem:entity_cache;DB_CLOSE_DELAY=-1", "sa", "", "mysql");
+        assertTrue(new RecordSet().executeUpdate("create table uf_cached(id int primary key, name varchar(50))"));
+        assertTrue(new RecordSet().executeUpdate("insert into uf_cached(id, name) values (1, 'first'), (2, 'second')"));
+    }
+
+    @Test
+    public void putIsSkippedWhenTableChangedDuringQuery() {
+        LruCache<Object, Object> region = EntityReadCache.region(VersionRow.class, "uf_version");
+        long version = EntityReadCache.version("UF_VERSION");
+        EntityReadCache.invalidate("uf_version");
+        EntityReadCache.put(region, "uf_version", version, 1L, "stale");
+        assertNull(region.get(1L));
+
+        version = EntityReadCache.version("uf_version");
+        EntityReadCache.put(region, "uf_version", version, 1L, "fresh");
+        assertEquals("fresh", region.get(1L));
+    }
+
+    @Test
+    public void invalidateClearsEveryRegionOfTheTable() {
+        LruCache<Object, Object> region = EntityReadCache.region(VersionRow.class, "uf_version");
+        LruCache<Object, Object> other = EntityReadCache.region(OtherVersionRow.class, "uf_version");
+        EntityReadCache.put(region, "uf_version", EntityReadCache.version("uf_version"), 2L, "a");
+        EntityReadCache.put(other, "uf_version", EntityReadCache.version("uf_version"), 2L, "b");
+        EntityReadCache.invalidate("UF_VERSION");
+        assertNull(region.get(2L));
+        assertNull(other.get(2L));
+        assertNull(EntityReadCache.region(UncachedRow.class, "uf_version"));
+    }
+
+    @Test
+    public void cachedEntitiesAreCopies() {
+        DataSourcesHandler handler = new DataSourcesHandler();
+        CachedRow first = handler.selectById(1L, CachedRow.class);
+        first.setName("changed by caller");
+        CachedRow second = handler.selectById(1L, CachedRow.class);
+        assertEquals("first", second.getName());
+        assertNotSame(second, handler.selectById(1L, CachedRow.class));
+        assertTrue(EntityReadCache.getStats(CachedRow.class).getHitCount() >= 2);
+
+        CachedRow condition = new CachedRow();
+        condition.setName("second");
+        CachedRow one = handler.selectOne(condition);
+        one.setName("changed by caller");
+        assertEquals("second", handler.selectOne(condition).getName());
+    }
+
+    @Test
+    public void writeThroughHandlerInvalidates() {
+        DataSourcesHandler handler = new DataSourcesHandler();
+        CachedRow row = handler.selectById(2L, CachedRow.class);
+        assertEquals("second", row.getName());
+        row.setName("updated");
+        assertTrue(handler.updateById(row));
+        assertEquals("updated", handler.selectById(2L, CachedRow.class).getName());
+        row.setName("second");
+        assertTrue(handler.updateById(row));
+        assertEquals("second", handler.selectById(2L, CachedRow.class).getName());
+        assertNull(handler.selectById(3L, CachedRow.class));
+    }
+
+    @TableName("uf_cached")
+    @EntityCache
+    public static class CachedRow {
+
+        private Integer id;
+
+        private String name;
+
+        public Integer getId() {
+            return id;
+        }
+
+        public void setId(Integer id) {
+            this.id = id;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+    }
+
+    @TableName("uf_version")
+    @EntityCache
+    public static class VersionRow {
+
+        private Integer id;
+
+        public Integer getId() {
+            return id;
+        }
+
+        public void setId(Integer id) {
+            this.id = id;
+        }
+    }
+
+    @TableName("uf_version")
+    @EntityCache
+    public static class OtherVersionRow extends VersionRow {
+    }
+
+    @TableName("uf_version")
+    public static class UncachedRow {
+
+        private Integer id;
+
+        public Integer getId() {
+            return id;
+        }
+
+        public void setId(Integer id) {
+            this.id = id;
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.handler.datasources;
+
+import com.alibaba.fastjson.JSON;
+import com.alibaba.fastjson.JSONObject;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import weaver.conn.ConnectionPool;
+import weaver.conn.RecordSet;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringWriter;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 导出格式(CSV、JSON Lines)转义测试
+ */
+public class ExportFormatTest {
+
+    private static final String SQL = "select id \"id\", txt \"txt\", amount \"amount\" from uf_export order by id";
+
+    @BeforeClass
+    public static void setUp() {
+        ConnectionPool.configure("jdbc:h2:mem:export_format;DB_CLOSE_DELAY=-1", "sa", "", "mysql");
+        assertTrue(new RecordSet().executeUpdate("create table uf_export(id int primary key, txt varchar(100), amount decimal(10, 2))"));
+        Object[][] rows = {
+                {1, "plain", new BigDecimal("1.50")},
+                {2, "a,b", null},
+                {3, "say \"hi\"", new BigDecimal("-2")},
+                {4, "line1\nline2\r\nline3", BigDecimal.ZERO},
+                {5, "中文 ✓\tback\\slash\u2028", new BigDecimal("3.25")},
+                {6, null, null},
+                {7, "", new BigDecimal("10")},
+        };
+        for (Object[] row : rows) {
+            assertTrue(new RecordSet().executeUpdate("insert into uf_export(id, txt, amount) values (?, ?, ?)", row));
+        }
+    }
+
+    @Test
+    public void csvQuotesOnlyWhenNeeded() {
+        StringWriter writer = new StringWriter();
+        assertEquals(7, new DataSourcesHandler().customExport(SQL, ExportFormat.CSV, writer));
+        assertEquals("id,txt,amount\r\n"
+                + "1,plain,1.50\r\n"
+                + "2,\"a,b\",\r\n"
+                + "3,\"say \"\"hi\"\"\",-2.00\r\n"
+                + "4,\"line1\nline2\r\nline3\",0.00\r\n"
+                + "5,中文 ✓\tback\\slash\u2028,3.25\r\n"
+                + "6,,\r\n"
+                + "7,,10.00\r\n", writer.toString());
+    }
+
+    @Test
+    public void jsonLinesEscapesAndKeepsNumbers() {
+        StringWriter writer = new StringWriter();
+        assertEquals(7, new DataSourcesHandler().customExport(SQL, ExportFormat.JSON_LINES, writer));
+        String[] lines = writer.toString().split("\n", -1);
+        assertEquals(8, lines.length);
+        assertEquals("", lines[7]);
+        assertEquals("{\"id\":1,\"txt\":\"plain\",\"amount\":1.50}", lines[0]);
+        assertEquals("{\"id\":3,\"txt\":\"say \\\"hi\\\"\",\"amount\":-2.00}", lines[2]);
+        assertEquals("{\"id\":4,\"txt\":\"line1\\nline2\\r\\nline3\",\"amount\":0.00}", lines[3]);
+        assertEquals("{\"id\":5,\"txt\":\"中文 ✓\\tback\\\\slash\\u2028\",\"amount\":3.25}", lines[4]);
+        assertEquals("{\"id\":6,\"txt\":null,\"amount\":null}", lines[5]);
+
+        JSONObject parsed = JSON.parseObject(lines[4]);
+        assertEquals("中文 ✓\tback\\slash\u2028", parsed.getString("txt"));
+        assertEquals(new BigDecimal("3.25"), parsed.getBigDecimal("amount"));
+        assertNull(JSON.parseObject(lines[1]).get("amount"));
+        assertEquals("", JSON.parseObject(lines[6]).getString("txt"));
+    }
+
+    @Test
+    public void gzipOutputIsUtf8() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        assertEquals(7, new DataSourcesHandler().customExport(SQL, ExportFormat.CSV, out, true, new Object[0]));
+        StringWriter expected = new StringWriter();
+        new DataSourcesHandler().customExport(SQL, ExportFormat.CSV, expected);
+        try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(out.toByteArray()))) {
+            ByteArrayOutputStream unzipped = new ByteArrayOutputStream();
+            byte[] buffer = new byte[4096];
+            for (int read; (read = in.read(buffer)) > 0; ) {
+                unzipped.write(buffer, 0, read);
+            }
+            assertEquals(expected.toString(), new String(unzipped.toByteArray(), StandardCharsets.UTF_8));
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package com.handler.datasources;
+
+import com.annotation.TableName;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import weaver.conn.ConnectionPool;
+import weaver.conn.RecordSet;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 按日期列游标分页测试
+ */
+public class KeysetDatePagingTest {
+
+    @BeforeClass
+    public static void setUp() {
+        ConnectionPool.configure("jdbc:h2:mem:keyset_date;DB_CLOSE_DELAY=-1", "sa", "", "mysql");
+        assertTrue(new RecordSet().executeUpdate("create table uf_keyset_date(id int primary key, name varchar(50), created datetime(3))"));
+        assertTrue(new RecordSet().executeUpdate("insert into uf_keyset_date(id, name, created) values "
+                + "(1, 'c', '2024-01-01 10:00:00.300'), (2, 'a', '2024-01-01 10:00:00.100'), (3, 'e', '2024-01-02 00:00:00.000'), "
+                + "(4, 'b', '2024-01-01 10:00:00.200'), (5, 'd', '2024-01-01 10:00:01.000')"));
+    }
+
+    @Test
+    public void pagesWalkMillisecondDistinctDates() {
+        DataSourcesHandler handler = new DataSourcesHandler();
+        List<String> names = new ArrayList<>();
+        List<String> cursors = new ArrayList<>();
+        String cursor = null;
+        do {
+            KeysetPage<KeysetRow> page = handler.selectPageByKey(new KeysetRow(), "created", cursor, 2);
+            assertFalse(page.getRecords().isEmpty());
+            for (KeysetRow row : page.getRecords()) {
+                names.add(row.getName());
+            }
+            cursor = page.getNextCursor();
+            if (page.hasNext()) {
+                cursors.add(cursor);
+            }
+        } while (null != cursor);
+        assertEquals(Arrays.asList("a", "b", "c", "d", "e"), names);
+        assertEquals(Arrays.asList("2024-01-01 10:00:00.200", "2024-01-01 10:00:01.000"), cursors);
+    }
+
+    @Test
+    public void cursorRoundTripsThroughTheKeyField() {
+        DataSourcesHandler handler = new DataSourcesHandler();
+        KeysetPage<KeysetRow> page = handler.selectPageByKey(new KeysetRow(), "created", "2024-01-01 10:00:00.100", 1);
+        assertEquals("b", page.getRecords().get(0).getName());
+        assertEquals("2024-01-01 10:00:00.200", page.getNextCursor());
+
+        KeysetRow condition = new KeysetRow();
+        condition.setName("b");
+        KeysetPage<KeysetRow> last = handler.selectPageByKey(condition, "created", "2024-01-01 10:00:00.100", 1);
+        assertEquals(1, last.getRecords().size());
+        assertNull(last.getNextCursor());
+        assertTrue(handler.selectPageByKey(condition, "created", page.getNextCursor(), 1).getRecords().isEmpty());
+    }
+
+    @TableName("uf_keyset_date")
+    public static class KeysetRow {
+
+        private Integer id;
+
+        private String name;
+
+        private Date created;
+
+        public Integer getId() {
+            return id;
+        }
+
+        public void setId(Integer id) {
+            this.id = id;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+
+        public Date getCreated() {
+            return created;
+        }
+
+        public void setCreated(Date created) {
+            this.created = created;
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package com.handler.datasources;
+
+import com.annotation.TableName;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import weaver.conn.ConnectionPool;
+import weaver.conn.RecordSet;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 自定义sql查询结果缓存测试
+ */
+public class QueryResultCacheTest {
+
+    private static final String[] TABLES = {"UF_DICT"};
+
+    /**
+     * H2返回的列名为大写
+     */
+    private static final String NAME = "NAME";
+
+    @BeforeClass
+    public static void setUp() {
+        ConnectionPool.configure("jdbc:h2:mem:result_cache;DB_CLOSE_DELAY=-1", "sa", "", "mysql");
+        assertTrue(new RecordSet().executeUpdate("create table uf_dict(id int primary key, name varchar(50))"));
+        assertTrue(new RecordSet().executeUpdate("insert into uf_dict(id, name) values (1, 'one'), (2, 'two'), (3, 'three')"));
+        assertTrue(new RecordSet().executeUpdate("create table uf_other(id int primary key, name varchar(50))"));
+        assertTrue(new RecordSet().executeUpdate("insert into uf_other(id, name) values (1, 'other')"));
+    }
+
+    @Test
+    public void writeThroughHandlerInvalidatesDependentResults() {
+        DataSourcesHandler handler = new DataSourcesHandler();
+        String sql = "select id, name from uf_dict where id = ?";
+        assertEquals("one", handler.customSelectListCached(DictRow.class, sql, TABLES, 1).get(0).getName());
+        assertTrue(new RecordSet().executeUpdate("update uf_dict set name = 'direct' where id = 1"));
+        long hits = QueryResultCache.getStats().getHitCount();
+        List<DictRow> cached = handler.customSelectListCached(DictRow.class, "select id,  name\n from uf_dict where id = ?", TABLES, 1);
+        assertEquals("one", cached.get(0).getName());
+        assertEquals(hits + 1, QueryResultCache.getStats().getHitCount());
+
+        OtherRow other = new OtherRow();
+        other.setId(1);
+        other.setName("other changed");
+        assertTrue(handler.updateById(other));
+        assertEquals("one", handler.customSelectListCached(DictRow.class, sql, TABLES, 1).get(0).getName());
+
+        DictRow row = new DictRow();
+        row.setId(1);
+        row.setName("updated");
+        assertTrue(handler.updateById(row));
+        assertEquals("updated", handler.customSelectListCached(DictRow.class, sql, TABLES, 1).get(0).getName());
+    }
+
+    @Test
+    public void explicitInvalidateByTableName() {
+        DataSourcesHandler handler = new DataSourcesHandler();
+        String sql = "select id, name from uf_dict where id = ?";
+        List<Map<String, String>> first = handler.customSelectListCached(sql, TABLES, 2);
+        assertEquals("two", first.get(0).get(NAME));
+        assertEquals("two", handler.customSelectListCached(DictRow.class, sql, TABLES, 2).get(0).getName());
+        assertTrue(new RecordSet().executeUpdate("update uf_dict set name = 'direct' where id = 2"));
+        assertEquals("two", handler.customSelectListCached(sql, TABLES, 2).get(0).get(NAME));
+        assertEquals("two", handler.customSelectListCached(DictRow.class, sql, TABLES, 2).get(0).getName());
+
+        QueryResultCache.invalidate("Uf_Dict");
+        assertEquals("direct", handler.customSelectListCached(sql, TABLES, 2).get(0).get(NAME));
+        assertEquals("direct", handler.customSelectListCached(DictRow.class, sql, TABLES, 2).get(0).getName());
+    }
+
+    @Test
+    public void resultsWithoutTablesOnlyExpireOrClear() {
+        DataSourcesHandler handler = new DataSourcesHandler();
+        String sql = "select id, name from uf_dict where id = 3";
+        assertEquals("three", handler.customSelectListCached(sql, null).get(0).get(NAME));
+        assertTrue(new RecordSet().executeUpdate("update uf_dict set name = 'direct' where id = 3"));
+        QueryResultCache.invalidate("uf_dict");
+        assertEquals("three", handler.customSelectListCached(sql, null).get(0).get(NAME));
+
+        QueryResultCache.invalidateAll();
+        assertEquals("direct", handler.customSelectListCached(sql, null).get(0).get(NAME));
+    }
+
+    @TableName("uf_dict")
+    public static class DictRow {
+
+        private Integer id;
+
+        private String name;
+
+        public Integer getId() {
+            return id;
+        }
+
+        public void setId(Integer id) {
+            this.id = id;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+    }
+
+    @TableName("uf_other")
+    public static class OtherRow extends DictRow {
+    }
+}
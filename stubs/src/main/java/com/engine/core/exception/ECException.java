@@ -0,0 +1,15 @@
+package com.engine.core.exception;
+
+/**
+ * 泛微ECException的替身(只用于编译、测试及基准测试)
+ */
+public class ECException extends RuntimeException {
+
+    public ECException(String message) {
+        super(message);
+    }
+
+    public ECException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
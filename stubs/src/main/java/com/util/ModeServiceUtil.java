@@ -0,0 +1,15 @@
+package com.util;
+
+import java.util.Map;
+
+/**
+ * 建模数据保存接口的替身(只用于编译、测试及基准测试)，不做任何操作
+ * 需要检查保存调用时通过DataSourcesHandler.setModeServiceUtil注入子类
+ */
+public class ModeServiceUtil {
+
+    public String addMoidfyModeData(int userId, int formModeId, int billId, boolean isRight, Map<String, String> mainData,
+                                    Object detailData) {
+        return "";
+    }
+}
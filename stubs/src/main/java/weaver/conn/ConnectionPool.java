@@ -0,0 +1,75 @@
+package weaver.conn;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+
+/**
+ * 泛微连接池的替身(只用于编译、测试及基准测试)
+ * 按configure指定的JDBC地址创建连接(如H2内存库)，归还的连接放入空闲队列复用
+ */
+public class ConnectionPool {
+
+    private static final ConnectionPool INSTANCE = new ConnectionPool();
+
+    private final BlockingQueue<WeaverConnection> idle = new LinkedBlockingQueue<>();
+
+    private volatile String url;
+
+    private volatile String user;
+
+    private volatile String password;
+
+    private volatile String dbType = "mysql";
+
+    public static ConnectionPool getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * 设置数据库(清空空闲连接)
+     *
+     * @param url      JDBC地址
+     * @param user     用户名
+     * @param password 密码
+     * @param dbType   数据库类型(RecordSet.getDBType()的返回值，如mysql、oracle、sqlserver)
+     */
+    public static void configure(String url, String user, String password, String dbType) {
+        INSTANCE.url = url;
+        INSTANCE.user = user;
+        INSTANCE.password = password;
+        INSTANCE.dbType = dbType;
+        WeaverConnection connection;
+        while (null != (connection = INSTANCE.idle.poll())) {
+            connection.closeQuietly();
+        }
+    }
+
+    public WeaverConnection getConnection() {
+        WeaverConnection connection = idle.poll();
+        if (null != connection) {
+            return connection;
+        }
+        if (null == url) {
+            throw new IllegalStateException("ConnectionPool未配置数据库");
+        }
+        try {
+            Connection physical = DriverManager.getConnection(url, user, password);
+            return new WeaverConnection(physical);
+        } catch (SQLException e) {
+            throw new IllegalStateException("获取连接失败[" + url + "]", e);
+        }
+    }
+
+    public void returnConnection(WeaverConnection connection) {
+        if (null != connection) {
+            idle.offer(connection);
+        }
+    }
+
+    public String getDBType() {
+        return dbType;
+    }
+}
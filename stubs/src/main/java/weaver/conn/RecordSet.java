@@ -0,0 +1,144 @@
+package weaver.conn;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * 泛微RecordSet的替身(只用于编译、测试及基准测试)
+ * 与泛微的RecordSet一致：通过连接池执行sql，查询时把整个结果集读入内存，参数为集合时展开为多个参数，
+ * 执行失败时不抛出异常而是返回false(失败后getColumnName()为null)，按列取值时null返回空字符串
+ */
+public class RecordSet {
+
+    private String[] columnNames;
+
+    private List<String[]> rows = new ArrayList<>();
+
+    private int cursor = -1;
+
+    public boolean executeQuery(String sql, Object... params) {
+        columnNames = null;
+        rows = new ArrayList<>();
+        cursor = -1;
+        WeaverConnection connection = ConnectionPool.getInstance().getConnection();
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            bind(statement, params);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                ResultSetMetaData metaData = resultSet.getMetaData();
+                String[] names = new String[metaData.getColumnCount()];
+                for (int i = 0; i < names.length; i++) {
+                    names[i] = metaData.getColumnLabel(i + 1);
+                }
+                while (resultSet.next()) {
+                    String[] values = new String[names.length];
+                    for (int i = 0; i < names.length; i++) {
+                        values[i] = resultSet.getString(i + 1);
+                    }
+                    rows.add(values);
+                }
+                columnNames = names;
+            }
+            return true;
+        } catch (SQLException e) {
+            rows = new ArrayList<>();
+            return false;
+        } finally {
+            connection.close();
+        }
+    }
+
+    public boolean executeUpdate(String sql, Object... params) {
+        columnNames = null;
+        rows = new ArrayList<>();
+        cursor = -1;
+        WeaverConnection connection = ConnectionPool.getInstance().getConnection();
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            bind(statement, params);
+            statement.executeUpdate();
+            return true;
+        } catch (SQLException e) {
+            return false;
+        } finally {
+            connection.close();
+        }
+    }
+
+    public boolean execute(String sql) {
+        return executeUpdate(sql);
+    }
+
+    public boolean next() {
+        if (cursor + 1 < rows.size()) {
+            cursor++;
+            return true;
+        }
+        return false;
+    }
+
+    public String getString(int columnIndex) {
+        if (cursor < 0 || cursor >= rows.size() || columnIndex < 1 || columnIndex > columnNames.length) {
+            return "";
+        }
+        String value = rows.get(cursor)[columnIndex - 1];
+        return null != value ? value : "";
+    }
+
+    public String getString(String columnName) {
+        if (null != columnNames) {
+            for (int i = 0; i < columnNames.length; i++) {
+                if (columnNames[i].equalsIgnoreCase(columnName)) {
+                    return getString(i + 1);
+                }
+            }
+        }
+        return "";
+    }
+
+    public int getInt(int columnIndex) {
+        String value = getString(columnIndex);
+        return value.isEmpty() ? -1 : Integer.parseInt(value);
+    }
+
+    public int getInt(String columnName) {
+        String value = getString(columnName);
+        return value.isEmpty() ? -1 : Integer.parseInt(value);
+    }
+
+    public String[] getColumnName() {
+        return columnNames;
+    }
+
+    public int getColCounts() {
+        return null != columnNames ? columnNames.length : 0;
+    }
+
+    public int getCounts() {
+        return rows.size();
+    }
+
+    public String getDBType() {
+        return ConnectionPool.getInstance().getDBType();
+    }
+
+    private static void bind(PreparedStatement statement, Object[] params) throws SQLException {
+        if (null == params) {
+            return;
+        }
+        int index = 1;
+        for (Object param : params) {
+            if (param instanceof Collection) {
+                for (Object item : (Collection<?>) param) {
+                    statement.setObject(index++, item);
+                }
+            } else {
+                statement.setObject(index++, param);
+            }
+        }
+    }
+}
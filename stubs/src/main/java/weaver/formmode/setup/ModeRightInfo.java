@@ -0,0 +1,14 @@
+package weaver.formmode.setup;
+
+/**
+ * 泛微建模权限重建的替身(只用于编译、测试及基准测试)，不做任何操作
+ * 需要检查建权调用时通过DataSourcesHandler.setModeRightInfo注入子类
+ */
+public class ModeRightInfo {
+
+    public void setNewRight(boolean newRight) {
+    }
+
+    public void editModeDataShare(int userId, int formModeId, int billId) {
+    }
+}
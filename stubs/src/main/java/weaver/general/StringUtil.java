@@ -0,0 +1,15 @@
+package weaver.general;
+
+/**
+ * 泛微StringUtil的替身(只用于编译、测试及基准测试)
+ */
+public class StringUtil {
+
+    public static boolean isEmpty(String value) {
+        return null == value || value.isEmpty();
+    }
+
+    public static boolean isNotEmpty(String value) {
+        return !isEmpty(value);
+    }
+}
@@ -0,0 +1,24 @@
+package weaver.hrm;
+
+/**
+ * 泛微User的替身(只用于编译、测试及基准测试)
+ */
+public class User {
+
+    private int uid;
+
+    public User() {
+    }
+
+    public User(int uid) {
+        this.uid = uid;
+    }
+
+    public int getUID() {
+        return uid;
+    }
+
+    public void setUid(int uid) {
+        this.uid = uid;
+    }
+}